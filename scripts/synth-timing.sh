@@ -0,0 +1,60 @@
+#!/usr/bin/env bash
+#
+# Compares the synth wall-clock time of the Maven launcher in cdk.json with the prebuilt jar, with and without a
+# class-data-sharing (CDS) archive. Runs offline: the context the CDK CLI would pass to the app is built from
+# cdk.json and the cached lookups in cdk.context.json.
+#
+# Usage: scripts/synth-timing.sh [runs]
+
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+JAR=target/cdk-app.jar
+CDS_ARCHIVE=target/cdk-app.jsa
+
+OUTDIR=$(mktemp -d)
+trap 'rm -rf "$OUTDIR"' EXIT
+
+CDK_CONTEXT_JSON=$(node -e '
+    const fs = require("fs");
+    const read = file => fs.existsSync(file) ? JSON.parse(fs.readFileSync(file, "utf8")) : {};
+    process.stdout.write(JSON.stringify({...(read("cdk.json").context || {}), ...read("cdk.context.json")}));
+')
+export CDK_CONTEXT_JSON
+export CDK_OUTDIR=$OUTDIR
+# The account and region the lookups in cdk.context.json were cached for.
+export CDK_DEFAULT_ACCOUNT=${CDK_DEFAULT_ACCOUNT:-587499190148}
+export CDK_DEFAULT_REGION=${CDK_DEFAULT_REGION:-eu-central-1}
+
+echo "Building $JAR"
+mvn -q -P runnable package -DskipTests
+
+echo "Dumping the classes loaded during one synth to $CDS_ARCHIVE"
+java -XX:ArchiveClassesAtExit="$CDS_ARCHIVE" -jar "$JAR" > /dev/null
+
+elapsed_ms() {
+    local start end
+    start=$(date +%s%N)
+    "$@" > /dev/null
+    end=$(date +%s%N)
+    echo $(((end - start) / 1000000))
+}
+
+# The first run pays for cold OS caches (and for Maven, the up-to-date check of the build), the following ones
+# show the steady state of repeated synths, e.g. cdk diff after cdk synth.
+measure() {
+    local label=$1
+    shift
+    local first warm=() median
+    first=$(elapsed_ms "$@")
+    for ((i = 0; i < RUNS; i++)); do
+        warm+=("$(elapsed_ms "$@")")
+    done
+    median=$(printf '%s\n' "${warm[@]}" | sort -n | sed -n "$(((RUNS + 1) / 2))p")
+    printf '%-24s first run %6d ms    warm (median of %d) %6d ms\n' "$label" "$first" "$RUNS" "$median"
+}
+
+measure "mvn compile exec:java" mvn -e -q compile exec:java
+measure "java -jar" java -jar "$JAR"
+measure "java -jar with CDS" java -XX:SharedArchiveFile="$CDS_ARCHIVE" -jar "$JAR"
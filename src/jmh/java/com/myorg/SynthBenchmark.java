@@ -0,0 +1,111 @@
+package com.myorg;
+
+import com.myorg.util.ContextFiles;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import software.amazon.awscdk.App;
+import software.amazon.awscdk.AppProps;
+import software.amazon.awscdk.Environment;
+import software.amazon.awscdk.StackProps;
+import software.amazon.awscdk.cxapi.CloudAssembly;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures how long building and synthesizing the stack takes, offline against the cached lookups of
+ * cdk.context.json.
+ * <p>
+ * Run from the project root with <code>mvn -P benchmark package -DskipTests && java -jar target/benchmarks.jar</code>.
+ * Add <code>-prof gc</code> to measure allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class SynthBenchmark {
+
+    /**
+     * The account and region the lookups in cdk.context.json were cached for.
+     */
+    private static final Environment ENVIRONMENT = Environment.builder()
+                                                              .account("587499190148")
+                                                              .region("eu-central-1")
+                                                              .build();
+
+    private static final List<String> ALL_ENVIRONMENTS = List.of("dev", "prod");
+
+    @Param({"dev", "prod"})
+    private String environmentName;
+
+    private Map<String, Object> context;
+    private Path                outdir;
+
+    @Setup
+    public void setUp() throws IOException {
+
+        context = ContextFiles.load(new File(System.getProperty("cdk.project.dir", ".")));
+        outdir  = Files.createTempDirectory("cdk-synth-benchmark");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+
+        try (Stream<Path> files = Files.walk(outdir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public CdkAppStack construct() {
+
+        return createStack(createApp(), "appStack", environmentName);
+    }
+
+    @Benchmark
+    public CloudAssembly constructAndSynth() {
+
+        App app = createApp();
+        createStack(app, "appStack", environmentName);
+
+        return app.synth();
+    }
+
+    /**
+     * All environments in one app, i.e. what a pipeline synthesizing every variant pays per run. Runs once per
+     * value of <code>environmentName</code>, which it ignores.
+     */
+    @Benchmark
+    public void constructAndSynthAllEnvironments(Blackhole blackhole) {
+
+        App app = createApp();
+        for (String name : ALL_ENVIRONMENTS) {
+            createStack(app, "appStack-" + name, name);
+        }
+
+        blackhole.consume(app.synth());
+    }
+
+    private App createApp() {
+
+        return new App(AppProps.builder()
+                               .context(context)
+                               .outdir(outdir.toString())
+                               .analyticsReporting(false)
+                               .build());
+    }
+
+    private CdkAppStack createStack(App app, String id, String envName) {
+
+        return new CdkAppStack(app, id, envName, StackProps.builder().env(ENVIRONMENT).build());
+    }
+}
@@ -1,26 +1,68 @@
 package com.myorg;
 
+import com.myorg.util.EnvironmentContext;
 import software.amazon.awscdk.App;
 import software.amazon.awscdk.Environment;
 import software.amazon.awscdk.StackProps;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 public class CdkAppApp {
 
+    private static final String STACK_NAME = "SpringBootApplication";
+
     public static void main(final String[] args) {
 
         App app = new App();
 
-        new CdkAppStack(app, "appStack",
-                StackProps
-                        .builder()
-                        .stackName("SpringBootApplication")
-                        .env(Environment.builder()
-                                        .account(System.getenv("CDK_DEFAULT_ACCOUNT"))
-                                        .region(System.getenv("CDK_DEFAULT_REGION"))
-                                        .build())
-                        .build());
+        Map<String, List<String>> regionsByEnvName = new LinkedHashMap<>();
+        for (String envName : getEnvironmentNames(app)) {
+            regionsByEnvName.put(envName, EnvironmentContext.of(app.getNode(), envName).getStringList("regions",
+                    Collections.singletonList(System.getenv("CDK_DEFAULT_REGION"))));
+        }
+        // A single stack keeps the name it has always been deployed under.
+        boolean fanOut = regionsByEnvName.values().stream().mapToInt(List::size).sum() > 1;
+
+        // The stacks are built one after the other: every construct call goes through the single jsii kernel
+        // process, which serializes them, so building them on several threads would not be any faster.
+        regionsByEnvName.forEach((envName, regions) -> regions.forEach(region -> {
+            String suffix = fanOut ? "-" + envName + "-" + region : "";
+
+            new CdkAppStack(app, "appStack" + suffix, envName,
+                    StackProps
+                            .builder()
+                            .stackName(STACK_NAME + suffix)
+                            .env(Environment.builder()
+                                            .account(System.getenv("CDK_DEFAULT_ACCOUNT"))
+                                            .region(region)
+                                            .build())
+                            .build());
+        }));
 
         app.synth();
     }
-}
 
+    /**
+     * Reads the environments to synthesize from the <code>environmentNames</code> context, a list or, when passed
+     * with <code>-c</code>, a comma-separated string. Falls back to the single <code>environmentName</code>.
+     */
+    private static List<String> getEnvironmentNames(App app) {
+
+        Object envNames = app.getNode().tryGetContext("environmentNames");
+        if (envNames instanceof List) {
+            List<String> result = new ArrayList<>();
+            ((List<?>) envNames).forEach(envName -> result.add(envName.toString()));
+            return result;
+        }
+        if (envNames instanceof String) {
+            return Arrays.asList(((String) envNames).split(","));
+        }
+
+        return List.of((String) app.getNode().tryGetContext("environmentName"));
+    }
+}
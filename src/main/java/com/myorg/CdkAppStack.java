@@ -1,43 +1,395 @@
 package com.myorg;
 
 import com.myorg.my_construct.BastionHost;
+import com.myorg.my_construct.Cache;
+import com.myorg.my_construct.ContentDelivery;
 import com.myorg.my_construct.Database;
+import com.myorg.my_construct.LoadGenerator;
+import com.myorg.my_construct.Monitoring;
 import com.myorg.my_construct.Network;
 import com.myorg.my_construct.Service;
 import com.myorg.util.ApplicationEnvironment;
+import com.myorg.util.EnvironmentContext;
+import com.myorg.util.Gp3Volume;
+import com.myorg.util.InstanceSizing;
+import com.myorg.util.PerformanceBudget;
+import software.amazon.awscdk.Aspects;
 import software.amazon.awscdk.Stack;
 import software.amazon.awscdk.StackProps;
+import software.amazon.awscdk.services.cloudfront.PriceClass;
+import software.amazon.awscdk.services.ec2.CpuCredits;
+import software.amazon.awscdk.services.ec2.InstanceType;
+import software.amazon.awscdk.services.logs.RetentionDays;
+import software.amazon.awscdk.services.rds.StorageType;
 import software.constructs.Construct;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 public class CdkAppStack extends Stack {
 
 
-    public CdkAppStack(final Construct scope, final String id, final StackProps props) {
+    /**
+     * @param envName the environment to deploy, selecting its settings from the <code>environments</code>
+     *                context.
+     */
+    public CdkAppStack(final Construct scope, final String id, final String envName, final StackProps props) {
 
         super(scope, id, props);
 
+        EnvironmentContext envContext    = EnvironmentContext.of(this.getNode(), envName);
+        EnvironmentContext sizingContext = envContext.section("sizing");
+
+        // The image, key pair and bucket belong to the environment, since several environments may be synthesized
+        // together. The global context only serves as fallback.
         String appName             = (String) this.getNode().tryGetContext("applicationName");
-        String envName             = (String) this.getNode().tryGetContext("environmentName");
         String az1                 = (String) this.getNode().tryGetContext("az1");
         String az2                 = (String) this.getNode().tryGetContext("az2");
-        String appAmiImageId       = (String) this.getNode().tryGetContext("appAmiImageName");
-        String instanceKeyPairName = (String) this.getNode().tryGetContext("instanceKeyPairName");
-        String s3Arn               = (String) this.getNode().tryGetContext("s3Arn");
+        String appAmiImageId       = envContext.getString("appAmiImageName",
+                (String) this.getNode().tryGetContext("appAmiImageName"));
+        String instanceKeyPairName = envContext.getString("instanceKeyPairName",
+                (String) this.getNode().tryGetContext("instanceKeyPairName"));
+        String s3Arn               = envContext.getString("s3Arn", (String) this.getNode().tryGetContext("s3Arn"));
         String dbUser              = (String) this.getNode().tryGetContext("dbUser");
 
-        Network network = new Network(this, "network", envName, new Network.NetworkInputParams(az1, az2));
+        EnvironmentContext networkContext = envContext.section("network");
+        Network network = new Network(this, "network", envName, new Network.NetworkInputParams(
+                networkContext.section("availabilityZonesByRegion").getStringList(getRegion(),
+                        networkContext.getStringList("availabilityZones", List.of(az1, az2))),
+                networkContext.getStringList("endpoints", List.of()),
+                Network.NatStrategy.valueOf(toEnumName(networkContext.getString("natStrategy", "none"))),
+                new InstanceType(networkContext.getString("natInstanceType", "t3.nano"))));
         Network.NetworkOutputParameters networkOutParams = network.getOutputParameters();
 
         BastionHost bastionHost = new BastionHost(this, "bastion-host", envName,
-                new BastionHost.BastionHostInputParameters(instanceKeyPairName), networkOutParams);
+                new BastionHost.BastionHostInputParameters(instanceKeyPairName,
+                        createInstanceSizing(sizingContext.section("bastionHost"), "t2", "micro"),
+                        createGp3Volume(envContext.section("bastionHost").section("rootVolume"), 8)),
+                networkOutParams);
         BastionHost.BastionHostOutputParameters bastionHostOutParams = bastionHost.getOutputParameters();
 
         Service service = new Service(this, "service", new ApplicationEnvironment(appName, envName),
-                new Service.ServiceInputParameters(appAmiImageId, instanceKeyPairName, s3Arn), networkOutParams);
+                createServiceInputParameters(envContext.section("service"), sizingContext.section("service"),
+                        appAmiImageId, instanceKeyPairName, s3Arn, bastionHostOutParams.getBhSgId()),
+                networkOutParams);
         Service.ServiceOutputParameters serviceOutParams = service.getOutputParameters();
 
+        EnvironmentContext databaseContext = envContext.section("database");
         Database database = new Database(this, "database", new ApplicationEnvironment(appName, envName),
                 new Database.DatabaseInputParameters(dbUser, serviceOutParams.getAppSgId(),
-                        bastionHostOutParams.getBhSgId()), networkOutParams);
+                        bastionHostOutParams.getBhSgId(), createProxyParameters(databaseContext),
+                        createInstanceSizing(sizingContext.section("database"), "t3", "micro"),
+                        createReplicaParameters(databaseContext),
+                        createStorageParameters(databaseContext),
+                        createDiagnosticsParameters(databaseContext),
+                        new Database.EngineParameters(databaseContext.getStringMap("parameters"),
+                                databaseContext.getStringMap("replicaParameters")),
+                        Database.EngineMode.valueOf(toEnumName(databaseContext.getString("engineMode", "instance"))),
+                        createServerlessCapacityParameters(databaseContext),
+                        createMaintenanceParameters(databaseContext.section("maintenance"))), networkOutParams);
+        Database.DatabaseOutputParameters databaseOutParams = database.getOutputParameters();
+        database.grantConnect(serviceOutParams.getAppRole());
+        service.connectTo(databaseOutParams);
+
+        EnvironmentContext cacheContext = envContext.section("cache");
+        if (cacheContext.getBoolean("enabled", false)) {
+            Cache cache = new Cache(this, "cache", new ApplicationEnvironment(appName, envName),
+                    new Cache.CacheInputParameters(serviceOutParams.getAppSgId(),
+                            cacheContext.getString("nodeType", "cache.t4g.micro"),
+                            cacheContext.getInt("shards", 1),
+                            cacheContext.getInt("replicasPerShard", 1),
+                            cacheContext.getString("evictionPolicy", "allkeys-lru")), networkOutParams);
+        }
+
+        EnvironmentContext cdnContext = envContext.section("cdn");
+        if (cdnContext.getBoolean("enabled", false)) {
+            ContentDelivery contentDelivery = new ContentDelivery(this, "content-delivery",
+                    new ApplicationEnvironment(appName, envName),
+                    createContentDeliveryInputParameters(cdnContext, serviceOutParams, s3Arn));
+        }
+
+        EnvironmentContext loadGeneratorContext = envContext.section("loadGenerator");
+        if (loadGeneratorContext.getBoolean("enabled", false)) {
+            // Load tests are sized to push the app over its limits, which users of the environment would feel, so
+            // environments have to opt in.
+            if (!loadGeneratorContext.getBoolean("allowed", false)) {
+                throw new IllegalArgumentException("Load generators are not allowed in " + envName);
+            }
+            LoadGenerator loadGenerator = new LoadGenerator(this, "load-generator",
+                    new ApplicationEnvironment(appName, envName),
+                    createLoadGeneratorInputParameters(loadGeneratorContext, sizingContext.section("loadGenerator"),
+                            "http://" + serviceOutParams.getAlbDnsName()), networkOutParams);
+        }
+
+        Monitoring monitoring = new Monitoring(this, "monitoring", new ApplicationEnvironment(appName, envName),
+                createMonitoringInputParameters(envContext.section("monitoring")), serviceOutParams,
+                databaseOutParams, bastionHostOutParams);
+
+        PerformanceBudget performanceBudget = new PerformanceBudget(this, service,
+                createPerformanceBudgetPolicy(envContext.section("budget")));
+        Aspects.of(this).add(performanceBudget);
+        this.getNode().addValidation(performanceBudget);
+    }
+
+    /**
+     * Reads a sizing profile, falling back to the given family and size for environments without one.
+     */
+    private static InstanceSizing createInstanceSizing(
+            EnvironmentContext sizingContext, String defaultFamily, String defaultSize) {
+
+        String cpuCredits = sizingContext.getString("cpuCredits", null);
+
+        return new InstanceSizing(
+                sizingContext.getString("family", defaultFamily),
+                sizingContext.getString("size", defaultSize),
+                sizingContext.getBoolean("graviton", false),
+                cpuCredits != null ? CpuCredits.valueOf(cpuCredits.toUpperCase()) : null);
+    }
+
+    /**
+     * Turns a camel-case context value like <code>multiAz</code> into the name of an enum constant
+     * (<code>MULTI_AZ</code>).
+     */
+    private static String toEnumName(String value) {
+
+        return value.replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase();
+    }
+
+    private static Service.ServiceInputParameters createServiceInputParameters(
+            EnvironmentContext serviceContext, EnvironmentContext sizingContext, String appAmiImageId,
+            String instanceKeyPairName, String s3Arn, String bhSgId) {
+
+        return new Service.ServiceInputParameters(appAmiImageId, instanceKeyPairName, s3Arn, bhSgId,
+                serviceContext.getString("healthCheckPath", "/"),
+                createInstanceSizing(sizingContext, "t2", "micro"),
+                new Service.ScalingParameters(
+                        serviceContext.getInt("minCapacity", 2),
+                        serviceContext.getInt("maxCapacity", 4),
+                        serviceContext.getInt("cpuTargetUtilization", 60),
+                        serviceContext.getInt("requestsPerMinutePerTarget", 1000),
+                        createScheduledScalingParameters(serviceContext),
+                        createPredictiveScalingParameters(serviceContext.section("predictiveScaling"))),
+                createDeploymentParameters(serviceContext.section("deployment")),
+                createBlockStorageParameters(serviceContext.section("storage")),
+                createPlacementParameters(serviceContext.section("placement")),
+                createCloudWatchAgentParameters(serviceContext.section("cloudWatchAgent")));
+    }
+
+    private static Service.CloudWatchAgentParameters createCloudWatchAgentParameters(
+            EnvironmentContext agentContext) {
+
+        if (!agentContext.getBoolean("enabled", false)) {
+            return null;
+        }
+
+        return new Service.CloudWatchAgentParameters(
+                agentContext.getInt("collectionIntervalSeconds", 60),
+                agentContext.getBoolean("statsd", true),
+                agentContext.getBoolean("emf", true),
+                agentContext.getInteger("jmxPort"));
+    }
+
+    private static Service.BlockStorageParameters createBlockStorageParameters(EnvironmentContext storageContext) {
+
+        EnvironmentContext dataVolumeContext = storageContext.section("dataVolume");
+
+        return new Service.BlockStorageParameters(
+                storageContext.getString("rootDeviceName", "/dev/xvda"),
+                createGp3Volume(storageContext.section("rootVolume"), 8),
+                dataVolumeContext.has("sizeGib") ? createGp3Volume(dataVolumeContext, 0) : null,
+                storageContext.getBoolean("ebsOptimized", false));
+    }
+
+    private static Gp3Volume createGp3Volume(EnvironmentContext volumeContext, int defaultSizeGib) {
+
+        return new Gp3Volume(
+                volumeContext.getInt("sizeGib", defaultSizeGib),
+                volumeContext.getInteger("iops"),
+                volumeContext.getInteger("throughputMibps"));
+    }
+
+    private static Service.PlacementParameters createPlacementParameters(EnvironmentContext placementContext) {
+
+        String strategy = placementContext.getString("strategy", null);
+        if (strategy == null) {
+            return null;
+        }
+
+        return new Service.PlacementParameters(Service.PlacementStrategy.valueOf(toEnumName(strategy)),
+                placementContext.getInteger("partitionCount"));
+    }
+
+    private static Service.DeploymentParameters createDeploymentParameters(EnvironmentContext deploymentContext) {
+
+        EnvironmentContext warmPoolContext = deploymentContext.section("warmPool");
+
+        return new Service.DeploymentParameters(
+                deploymentContext.getInt("minHealthyPercent", 100),
+                deploymentContext.getInt("instanceWarmupSeconds", 300),
+                deploymentContext.getInt("slowStartSeconds", 0),
+                warmPoolContext.getBoolean("enabled", false)
+                ? new Service.WarmPoolParameters(
+                        warmPoolContext.getInt("minSize", 0),
+                        warmPoolContext.getInteger("maxPreparedCapacity"),
+                        warmPoolContext.getBoolean("reuseOnScaleIn", false))
+                : null);
+    }
+
+    private static List<Service.ScheduledScalingParameters> createScheduledScalingParameters(
+            EnvironmentContext serviceContext) {
+
+        String timeZone = serviceContext.getString("scheduleTimeZone", null);
+
+        return serviceContext.sections("schedules")
+                             .stream()
+                             .map(schedule -> new Service.ScheduledScalingParameters(
+                                     schedule.getString("name", null),
+                                     schedule.getString("cron", null),
+                                     schedule.getString("timeZone", timeZone),
+                                     schedule.getInteger("minCapacity"),
+                                     schedule.getInteger("maxCapacity"),
+                                     schedule.getInteger("desiredCapacity")))
+                             .collect(Collectors.toList());
+    }
+
+    private static Service.PredictiveScalingParameters createPredictiveScalingParameters(
+            EnvironmentContext predictiveContext) {
+
+        if (!predictiveContext.getBoolean("enabled", false)) {
+            return null;
+        }
+
+        return new Service.PredictiveScalingParameters(
+                "forecastOnly".equals(predictiveContext.getString("mode", "forecastAndScale")),
+                predictiveContext.getInt("schedulingBufferSeconds", 300),
+                predictiveContext.getInteger("maxCapacityBufferPercent"));
+    }
+
+    private static Database.ProxyParameters createProxyParameters(EnvironmentContext databaseContext) {
+
+        EnvironmentContext proxyContext = databaseContext.section("proxy");
+        if (!proxyContext.getBoolean("enabled", false)) {
+            return null;
+        }
+
+        return new Database.ProxyParameters(
+                proxyContext.getInt("borrowTimeoutSeconds", 30),
+                proxyContext.getInt("maxConnectionsPercent", 90),
+                proxyContext.getInt("maxIdleConnectionsPercent", 50));
+    }
+
+    private static Database.ReplicaParameters createReplicaParameters(EnvironmentContext databaseContext) {
+
+        EnvironmentContext replicaContext = databaseContext.section("replicas");
+
+        return new Database.ReplicaParameters(
+                replicaContext.getInt("count", 0),
+                new InstanceType(replicaContext.getString("instanceType", "t3.micro")));
+    }
+
+    private static Database.ServerlessCapacityParameters createServerlessCapacityParameters(
+            EnvironmentContext databaseContext) {
+
+        EnvironmentContext serverlessContext = databaseContext.section("serverless");
+
+        return new Database.ServerlessCapacityParameters(
+                serverlessContext.getDouble("minCapacity", 0.5),
+                serverlessContext.getDouble("maxCapacity", 4));
+    }
+
+    private static Database.MaintenanceParameters createMaintenanceParameters(EnvironmentContext maintenanceContext) {
+
+        return new Database.MaintenanceParameters(
+                maintenanceContext.getString("backupWindow", null),
+                maintenanceContext.getString("maintenanceWindow", null),
+                maintenanceContext.getInt("backupRetentionDays", 1),
+                maintenanceContext.getBoolean("deleteAutomatedBackups", true),
+                maintenanceContext.getBoolean("autoMinorVersionUpgrade", true),
+                maintenanceContext.getString("peakTrafficWindow", null));
+    }
+
+    private static Database.StorageParameters createStorageParameters(EnvironmentContext databaseContext) {
+
+        EnvironmentContext storageContext = databaseContext.section("storage");
+
+        return new Database.StorageParameters(
+                StorageType.valueOf(storageContext.getString("type", "gp3").toUpperCase()),
+                storageContext.getInt("allocatedStorage", 20),
+                storageContext.getInt("maxAllocatedStorage", 100),
+                storageContext.getInteger("iops"),
+                storageContext.getInteger("throughput"));
+    }
+
+    private static ContentDelivery.ContentDeliveryInputParameters createContentDeliveryInputParameters(
+            EnvironmentContext cdnContext, Service.ServiceOutputParameters serviceOutParams, String s3Arn) {
+
+        EnvironmentContext appCachingContext    = cdnContext.section("appCaching");
+        EnvironmentContext staticCachingContext = cdnContext.section("staticCaching");
+
+        return new ContentDelivery.ContentDeliveryInputParameters(serviceOutParams.getAlb(), s3Arn,
+                PriceClass.valueOf(cdnContext.getString("priceClass", "PRICE_CLASS_100")),
+                new ContentDelivery.CachingParameters(
+                        appCachingContext.getInt("defaultTtlSeconds", 0),
+                        appCachingContext.getInt("maxTtlSeconds", 300)),
+                new ContentDelivery.CachingParameters(
+                        staticCachingContext.getInt("defaultTtlSeconds", 86400),
+                        staticCachingContext.getInt("maxTtlSeconds", 31536000)));
+    }
+
+    private static LoadGenerator.LoadGeneratorInputParameters createLoadGeneratorInputParameters(
+            EnvironmentContext loadGeneratorContext, EnvironmentContext sizingContext, String targetUrl) {
+
+        return new LoadGenerator.LoadGeneratorInputParameters(targetUrl,
+                createInstanceSizing(sizingContext, "c6i", "large"),
+                loadGeneratorContext.getInt("instanceCount", 1),
+                loadGeneratorContext.getStringList("paths", List.of("/")),
+                loadGeneratorContext.getDouble("requestsPerSecond", 50),
+                loadGeneratorContext.getInt("concurrency", 16),
+                loadGeneratorContext.getInt("durationSeconds", 900));
+    }
+
+    private static Monitoring.MonitoringInputParameters createMonitoringInputParameters(
+            EnvironmentContext monitoringContext) {
+
+        return new Monitoring.MonitoringInputParameters(
+                monitoringContext.getString("alarmEmail", null),
+                monitoringContext.getDouble("cpuCreditBalanceMin", 20),
+                monitoringContext.getDouble("dbConnectionsMax", 60),
+                monitoringContext.getDouble("readLatencyMaxMillis", 20),
+                monitoringContext.getDouble("writeLatencyMaxMillis", 20),
+                monitoringContext.getDouble("freeStorageMinGib", 2),
+                monitoringContext.getDouble("replicaLagMaxSeconds", 30));
+    }
+
+    private static Database.DiagnosticsParameters createDiagnosticsParameters(EnvironmentContext databaseContext) {
+
+        EnvironmentContext diagnosticsContext         = databaseContext.section("diagnostics");
+        EnvironmentContext performanceInsightsContext = diagnosticsContext.section("performanceInsights");
+
+        return new Database.DiagnosticsParameters(
+                performanceInsightsContext.getBoolean("enabled", false),
+                performanceInsightsContext.getInt("retentionDays", 7),
+                performanceInsightsContext.getString("kmsKeyArn", null),
+                diagnosticsContext.getInt("enhancedMonitoringIntervalSeconds", 0),
+                diagnosticsContext.getStringList("logExports", List.of()),
+                RetentionDays.valueOf(diagnosticsContext.getString("logRetention", "ONE_MONTH")));
+    }
+
+    /**
+     * Reads the performance budget of an environment. Without one, violations are only reported as warnings and
+     * nothing beyond a working stack is required.
+     */
+    private static PerformanceBudget.Policy createPerformanceBudgetPolicy(EnvironmentContext budgetContext) {
+
+        return new PerformanceBudget.Policy(
+                "error".equals(budgetContext.getString("level", "warning")),
+                budgetContext.getBoolean("allowBurstable", true),
+                budgetContext.getStringList("disallowedSizes", List.of()),
+                budgetContext.getStringList("allowedStorageTypes", List.of()),
+                budgetContext.getBoolean("requireMultiAz", false),
+                budgetContext.getInt("minAvailabilityZones", 1),
+                budgetContext.getDouble("minScalingHeadroom", 1),
+                budgetContext.getBoolean("requireDatabaseInsights", false),
+                budgetContext.getBoolean("requireAlarms", false));
     }
 }
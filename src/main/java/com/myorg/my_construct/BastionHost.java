@@ -1,6 +1,9 @@
 package com.myorg.my_construct;
 
+import com.myorg.util.Gp3Volume;
+import com.myorg.util.InstanceSizing;
 import lombok.Getter;
+import software.amazon.awscdk.Stack;
 import software.amazon.awscdk.Tags;
 import software.amazon.awscdk.services.ec2.*;
 import software.amazon.awscdk.services.iam.IRole;
@@ -13,8 +16,11 @@ import java.util.List;
 
 public class BastionHost extends Construct {
 
+    private static final String ROOT_DEVICE_NAME = "/dev/xvda";
+
     private final String        envName;
     private final SecurityGroup bhSg;
+    private final Instance      bhInstance;
 
     public BastionHost(
             Construct scope, String id, String envName, BastionHostInputParameters serviceInputParameters,
@@ -26,27 +32,46 @@ public class BastionHost extends Construct {
 
         bhSg = createBhSg(networkOutputParameters.getVpc());
         Role role = createBhRole();
-        Instance bhInstance =
-                createBhInstance(serviceInputParameters.keyPairName, networkOutputParameters.getVpc(), bhSg, role);
+        bhInstance = createBhInstance(serviceInputParameters.keyPairName, serviceInputParameters.sizing,
+                serviceInputParameters.rootVolume, networkOutputParameters.getVpc(),
+                networkOutputParameters.getPrimaryAvailabilityZone(), bhSg, role);
 
         Tags.of(this).add("environment", envName);
     }
 
-    private Instance createBhInstance(String keyPairName, IVpc vpc, ISecurityGroup sg, IRole role) {
+    private Instance createBhInstance(
+            String keyPairName, InstanceSizing sizing, Gp3Volume rootVolume, IVpc vpc, String availabilityZone,
+            ISecurityGroup sg, IRole role) {
 
-        return Instance
+        Instance instance = Instance
                 .Builder
                 .create(this, "bh-instance")
                 .instanceName(prefixWithEnvName("bh-instance"))
-                .machineImage(MachineImage.latestAmazonLinux2())
-                .instanceType(InstanceType.of(InstanceClass.BURSTABLE2, InstanceSize.MICRO))
+                .machineImage(MachineImage.latestAmazonLinux2(AmazonLinux2ImageSsmParameterProps
+                        .builder()
+                        .cpuType(sizing.isArm() ? AmazonLinuxCpuType.ARM_64 : AmazonLinuxCpuType.X86_64)
+                        .build()))
+                .instanceType(sizing.getInstanceType())
+                .blockDevices(List.of(rootVolume.toBlockDevice(ROOT_DEVICE_NAME)))
                 .keyName(keyPairName)
                 .vpc(vpc)
-//                .vpcSubnets(SubnetSelection.builder().subnets(List.of(subnet)).build())
-                .vpcSubnets(SubnetSelection.builder().subnetType(SubnetType.PUBLIC).build())
+                .vpcSubnets(SubnetSelection
+                        .builder()
+                        .subnetType(SubnetType.PUBLIC)
+                        .availabilityZones(List.of(availabilityZone))
+                        .build())
                 .securityGroup(sg)
                 .role(role)
                 .build();
+
+        if (sizing.getCpuCredits() != null) {
+            instance.getInstance().setCreditSpecification(CfnInstance.CreditSpecificationProperty
+                    .builder()
+                    .cpuCredits(sizing.getCpuCredits().name().toLowerCase())
+                    .build());
+        }
+
+        return instance;
     }
 
     private SecurityGroup createBhSg(IVpc vpc) {
@@ -68,7 +93,7 @@ public class BastionHost extends Construct {
         return Role
                 .Builder
                 .create(this, "ec2-bh-role")
-                .roleName("EC2BastionHostRole")
+                .roleName(prefixWithEnvName("EC2BastionHostRole-" + Stack.of(this).getRegion()))
                 .assumedBy(ServicePrincipal.Builder.create("ec2.amazonaws.com").build())
                 .managedPolicies(List.of(
                         ManagedPolicy.fromAwsManagedPolicyName("AmazonSSMManagedInstanceCore")))
@@ -82,16 +107,29 @@ public class BastionHost extends Construct {
 
     public BastionHostOutputParameters getOutputParameters() {
 
-        return new BastionHostOutputParameters(bhSg.getSecurityGroupId());
+        return new BastionHostOutputParameters(bhSg.getSecurityGroupId(), bhInstance.getInstanceId());
     }
 
     public static class BastionHostInputParameters {
 
-        private final String keyPairName;
+        private final String         keyPairName;
+        private final InstanceSizing sizing;
+        private final Gp3Volume      rootVolume;
+
+        /**
+         * @param rootVolume the root volume replacing the one of the Amazon Linux image.
+         */
+        public BastionHostInputParameters(String keyPairName, InstanceSizing sizing, Gp3Volume rootVolume) {
 
-        public BastionHostInputParameters(String keyPairName) {
+            // AWS::EC2::Instance has no throughput setting for its block device mappings.
+            if (rootVolume.getThroughputMibps() != null) {
+                throw new IllegalArgumentException(
+                        "The bastion host's root volume runs at the gp3 baseline throughput");
+            }
 
             this.keyPairName = keyPairName;
+            this.sizing      = sizing;
+            this.rootVolume  = rootVolume;
         }
     }
 
@@ -99,10 +137,12 @@ public class BastionHost extends Construct {
     public static class BastionHostOutputParameters {
 
         private final String bhSgId;
+        private final String bhInstanceId;
 
-        public BastionHostOutputParameters(String bhSgId) {
+        public BastionHostOutputParameters(String bhSgId, String bhInstanceId) {
 
-            this.bhSgId = bhSgId;
+            this.bhSgId       = bhSgId;
+            this.bhInstanceId = bhInstanceId;
         }
     }
 }
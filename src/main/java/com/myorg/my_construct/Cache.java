@@ -0,0 +1,247 @@
+package com.myorg.my_construct;
+
+import com.myorg.util.ApplicationEnvironment;
+import lombok.Getter;
+import software.amazon.awscdk.CfnOutput;
+import software.amazon.awscdk.services.ec2.IVpc;
+import software.amazon.awscdk.services.ec2.Peer;
+import software.amazon.awscdk.services.ec2.Port;
+import software.amazon.awscdk.services.ec2.SecurityGroup;
+import software.amazon.awscdk.services.elasticache.CfnParameterGroup;
+import software.amazon.awscdk.services.elasticache.CfnReplicationGroup;
+import software.amazon.awscdk.services.elasticache.CfnSubnetGroup;
+import software.amazon.awscdk.services.ssm.StringParameter;
+import software.constructs.Construct;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class Cache extends Construct {
+
+    private static final int REDIS_PORT = 6379;
+
+    private static final int REPLICATION_GROUP_ID_MAX_LENGTH = 40;
+
+    private static final List<String> EVICTION_POLICIES = List.of(
+            "volatile-lru", "allkeys-lru", "volatile-lfu", "allkeys-lfu", "volatile-random", "allkeys-random",
+            "volatile-ttl", "noeviction");
+
+    private final ApplicationEnvironment appEnv;
+    private final SecurityGroup          cacheSg;
+    private final CfnReplicationGroup    replicationGroup;
+    private final boolean                clusterMode;
+
+    public Cache(
+            Construct scope, String id, ApplicationEnvironment appEnv, CacheInputParameters cacheInputParameters,
+            Network.NetworkOutputParameters networkOutputParameters) {
+
+        super(scope, id);
+
+        this.appEnv = appEnv;
+
+        // With more than one shard the keyspace is partitioned, which needs cluster mode enabled.
+        clusterMode = cacheInputParameters.shards > 1;
+
+        cacheSg = createCacheSg(networkOutputParameters.getVpc(), cacheInputParameters.appSgId);
+        CfnSubnetGroup cacheSubnetGroup = createCacheSubnetGroup(networkOutputParameters.getPrivateSubnets());
+        CfnParameterGroup cacheParameterGroup = createCacheParameterGroup(cacheInputParameters.evictionPolicy);
+        replicationGroup = createReplicationGroup(cacheInputParameters, cacheSubnetGroup, cacheParameterGroup,
+                networkOutputParameters.getAvailabilityZones());
+
+        exportEndpoints(getPrimaryEndpoint(), getReaderEndpoint());
+
+        appEnv.tag(this);
+    }
+
+    private CfnReplicationGroup createReplicationGroup(
+            CacheInputParameters cacheInputParameters, CfnSubnetGroup subnetGroup, CfnParameterGroup parameterGroup,
+            List<String> availabilityZones) {
+
+        boolean replicated = cacheInputParameters.replicasPerShard > 0;
+
+        // Without cluster mode the primary goes to the primary AZ, next to the app instances there and the
+        // database writer, and the replicas to the following AZs.
+        List<String> nodeAzs = null;
+        if (!clusterMode) {
+            nodeAzs = new ArrayList<>();
+            for (int i = 0; i <= cacheInputParameters.replicasPerShard; i++) {
+                nodeAzs.add(availabilityZones.get(i % availabilityZones.size()));
+            }
+        }
+
+        return CfnReplicationGroup
+                .Builder
+                .create(this, "cache-replication-group")
+                .replicationGroupId(createReplicationGroupId())
+                .replicationGroupDescription("Redis cache in front of the RDS instance")
+                .engine("redis")
+                .engineVersion("7.0")
+                .cacheNodeType(cacheInputParameters.nodeType)
+                .numNodeGroups(cacheInputParameters.shards)
+                .replicasPerNodeGroup(cacheInputParameters.replicasPerShard)
+                .automaticFailoverEnabled(replicated || clusterMode)
+                .multiAzEnabled(replicated)
+                .preferredCacheClusterAzs(nodeAzs)
+                .atRestEncryptionEnabled(true)
+                .cacheSubnetGroupName(subnetGroup.getRef())
+                .cacheParameterGroupName(parameterGroup.getRef())
+                .securityGroupIds(List.of(cacheSg.getSecurityGroupId()))
+                .port(REDIS_PORT)
+                .build();
+    }
+
+    /**
+     * ElastiCache takes at most 40 lowercase characters, starting with a letter, without consecutive or trailing
+     * hyphens. Long names are cut at the end, so that the id keeps starting with the environment.
+     */
+    private String createReplicationGroupId() {
+
+        String id = appEnv.prefix("cache").toLowerCase().replaceAll("-{2,}", "-");
+        id = id.substring(0, Math.min(id.length(), REPLICATION_GROUP_ID_MAX_LENGTH)).replaceAll("-+$", "");
+        if (!id.matches("[a-z][a-z0-9-]*")) {
+            throw new IllegalArgumentException("Invalid cache replication group id: " + id);
+        }
+
+        return id;
+    }
+
+    private SecurityGroup createCacheSg(IVpc vpc, String appSgId) {
+
+        SecurityGroup sg = SecurityGroup
+                .Builder
+                .create(this, "cache-sg")
+                .securityGroupName(appEnv.prefix("cache-sg"))
+                .vpc(vpc)
+                .allowAllOutbound(false)
+                .build();
+        sg.addIngressRule(Peer.securityGroupId(appSgId), Port.tcp(REDIS_PORT));
+
+        return sg;
+    }
+
+    private CfnSubnetGroup createCacheSubnetGroup(List<String> subnetIds) {
+
+        return CfnSubnetGroup
+                .Builder
+                .create(this, "cache-subnet-group")
+                .cacheSubnetGroupName(appEnv.prefix("cache-subnet-group"))
+                .description("Subnet group for the Redis cache")
+                .subnetIds(subnetIds)
+                .build();
+    }
+
+    private CfnParameterGroup createCacheParameterGroup(String evictionPolicy) {
+
+        return CfnParameterGroup
+                .Builder
+                .create(this, "cache-parameter-group")
+                .cacheParameterGroupFamily("redis7")
+                .description("Parameter group for the Redis cache")
+                .properties(Map.of(
+                        "maxmemory-policy", evictionPolicy,
+                        "cluster-enabled", clusterMode ? "yes" : "no"))
+                .build();
+    }
+
+    /**
+     * In cluster mode the configuration endpoint serves both reads and writes.
+     */
+    private String getPrimaryEndpoint() {
+
+        return clusterMode
+                ? replicationGroup.getAttrConfigurationEndPointAddress()
+                : replicationGroup.getAttrPrimaryEndPointAddress();
+    }
+
+    private String getReaderEndpoint() {
+
+        return clusterMode
+                ? replicationGroup.getAttrConfigurationEndPointAddress()
+                : replicationGroup.getAttrReaderEndPointAddress();
+    }
+
+    /**
+     * Publishes the endpoints the application shall connect to, so that instances can resolve them at boot time.
+     */
+    private void exportEndpoints(String primaryEndpoint, String readerEndpoint) {
+
+        StringParameter.Builder.create(this, "cache-primary-endpoint-parameter")
+                               .parameterName("/" + appEnv + "/cache/primary-endpoint")
+                               .description("Endpoint the application sends cache writes to")
+                               .stringValue(primaryEndpoint)
+                               .build();
+        StringParameter.Builder.create(this, "cache-reader-endpoint-parameter")
+                               .parameterName("/" + appEnv + "/cache/reader-endpoint")
+                               .description("Endpoint the application sends cache reads to")
+                               .stringValue(readerEndpoint)
+                               .build();
+
+        CfnOutput.Builder.create(this, "cache-primary-endpoint")
+                         .description("Endpoint the application sends cache writes to")
+                         .value(primaryEndpoint)
+                         .build();
+        CfnOutput.Builder.create(this, "cache-reader-endpoint")
+                         .description("Endpoint the application sends cache reads to")
+                         .value(readerEndpoint)
+                         .build();
+    }
+
+    public CacheOutputParameters getOutputParameters() {
+
+        return new CacheOutputParameters(cacheSg.getSecurityGroupId(), getPrimaryEndpoint(), getReaderEndpoint(),
+                replicationGroup.getRef());
+    }
+
+    public static class CacheInputParameters {
+
+        private final String appSgId;
+        private final String nodeType;
+        private final int    shards;
+        private final int    replicasPerShard;
+        private final String evictionPolicy;
+
+        /**
+         * @param appSgId          the SG of the application instances, the only clients admitted to the cache.
+         * @param nodeType         the node type, e.g. <code>cache.t4g.micro</code>.
+         * @param shards           the number of shards. More than one shard enables cluster mode.
+         * @param replicasPerShard the number of read replicas per shard.
+         * @param evictionPolicy   the Redis <code>maxmemory-policy</code>.
+         */
+        public CacheInputParameters(
+                String appSgId, String nodeType, int shards, int replicasPerShard, String evictionPolicy) {
+
+            if (shards < 1 || replicasPerShard < 0 || replicasPerShard > 5) {
+                throw new IllegalArgumentException(String.format(
+                        "Invalid cache topology: %d shards with %d replicas each", shards, replicasPerShard));
+            }
+            if (!EVICTION_POLICIES.contains(evictionPolicy)) {
+                throw new IllegalArgumentException("Unknown Redis eviction policy: " + evictionPolicy);
+            }
+
+            this.appSgId          = appSgId;
+            this.nodeType         = nodeType;
+            this.shards           = shards;
+            this.replicasPerShard = replicasPerShard;
+            this.evictionPolicy   = evictionPolicy;
+        }
+    }
+
+    @Getter
+    public static class CacheOutputParameters {
+
+        private final String cacheSgId;
+        private final String primaryEndpoint;
+        private final String readerEndpoint;
+        private final String replicationGroupId;
+
+        public CacheOutputParameters(
+                String cacheSgId, String primaryEndpoint, String readerEndpoint, String replicationGroupId) {
+
+            this.cacheSgId          = cacheSgId;
+            this.primaryEndpoint    = primaryEndpoint;
+            this.readerEndpoint     = readerEndpoint;
+            this.replicationGroupId = replicationGroupId;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.myorg.my_construct;
+
+import com.myorg.util.ApplicationEnvironment;
+import lombok.Getter;
+import software.amazon.awscdk.CfnOutput;
+import software.amazon.awscdk.Duration;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.services.cloudfront.*;
+import software.amazon.awscdk.services.cloudfront.origins.HttpOrigin;
+import software.amazon.awscdk.services.cloudfront.origins.LoadBalancerV2Origin;
+import software.amazon.awscdk.services.cloudfront.origins.LoadBalancerV2OriginProps;
+import software.amazon.awscdk.services.elasticloadbalancingv2.IApplicationLoadBalancer;
+import software.amazon.awscdk.services.s3.Bucket;
+import software.amazon.awscdk.services.s3.IBucket;
+import software.constructs.Construct;
+
+import java.util.List;
+import java.util.Map;
+
+public class ContentDelivery extends Construct {
+
+    private static final String STATIC_PATH_PATTERN = "/static/*";
+
+    private final ApplicationEnvironment appEnv;
+    private final Distribution           distribution;
+
+    public ContentDelivery(
+            Construct scope, String id, ApplicationEnvironment appEnv,
+            ContentDeliveryInputParameters contentDeliveryInputParameters) {
+
+        super(scope, id);
+
+        this.appEnv = appEnv;
+
+        IBucket assetBucket = Bucket.fromBucketArn(this, "asset-bucket", contentDeliveryInputParameters.s3Arn);
+        CfnOriginAccessControl assetOac = createAssetOac();
+        distribution = createDistribution(contentDeliveryInputParameters, assetBucket);
+        attachOac(assetOac, assetBucket);
+
+        CfnOutput.Builder.create(this, "distribution-domain-name")
+                         .description("Domain name of the CloudFront distribution")
+                         .value(distribution.getDistributionDomainName())
+                         .build();
+        CfnOutput.Builder.create(this, "asset-bucket-policy-statement")
+                         .description("Statement the asset bucket policy needs so that CloudFront can read from it")
+                         .value(createAssetBucketPolicyStatement(assetBucket))
+                         .build();
+
+        appEnv.tag(this);
+    }
+
+    private Distribution createDistribution(ContentDeliveryInputParameters inputParameters, IBucket assetBucket) {
+
+        IOrigin appOrigin = new LoadBalancerV2Origin(inputParameters.alb, LoadBalancerV2OriginProps
+                .builder()
+                .protocolPolicy(OriginProtocolPolicy.HTTP_ONLY)
+                .build());
+        // A plain HTTP origin on the bucket's REST endpoint is turned into an S3 origin with OAC in attachOac,
+        // since the S3Origin of this CDK version only supports origin access identities.
+        IOrigin assetOrigin = new HttpOrigin(assetBucket.getBucketRegionalDomainName());
+
+        return Distribution
+                .Builder
+                .create(this, "distribution")
+                .comment(appEnv.prefix("distribution"))
+                .priceClass(inputParameters.priceClass)
+                .httpVersion(HttpVersion.HTTP2_AND_3)
+                .defaultBehavior(BehaviorOptions
+                        .builder()
+                        .origin(appOrigin)
+                        .viewerProtocolPolicy(ViewerProtocolPolicy.REDIRECT_TO_HTTPS)
+                        .allowedMethods(AllowedMethods.ALLOW_ALL)
+                        .cachePolicy(createCachePolicy("app-cache-policy", inputParameters.appCaching,
+                                CacheQueryStringBehavior.all()))
+                        .originRequestPolicy(OriginRequestPolicy.ALL_VIEWER)
+                        .compress(inputParameters.appCaching.isCaching())
+                        .build())
+                .additionalBehaviors(Map.of(STATIC_PATH_PATTERN, BehaviorOptions
+                        .builder()
+                        .origin(assetOrigin)
+                        .viewerProtocolPolicy(ViewerProtocolPolicy.REDIRECT_TO_HTTPS)
+                        .allowedMethods(AllowedMethods.ALLOW_GET_HEAD)
+                        .cachePolicy(createCachePolicy("static-cache-policy", inputParameters.staticCaching,
+                                CacheQueryStringBehavior.none()))
+                        .compress(inputParameters.staticCaching.isCaching())
+                        .build()))
+                .build();
+    }
+
+    /**
+     * CloudFront rejects a policy that caches nothing but puts compression settings or query strings, headers or
+     * cookies into the cache key, so such behaviors use the managed policy disabling caching instead. The origin
+     * request policy of a behavior still forwards what its origin needs.
+     */
+    private ICachePolicy createCachePolicy(
+            String id, CachingParameters caching, CacheQueryStringBehavior queryStrings) {
+
+        if (!caching.isCaching()) {
+            return CachePolicy.CACHING_DISABLED;
+        }
+
+        return CachePolicy
+                .Builder
+                .create(this, id)
+                .cachePolicyName(appEnv.prefix(id + "-" + Stack.of(this).getRegion()))
+                .minTtl(Duration.seconds(0))
+                .defaultTtl(Duration.seconds(caching.defaultTtlSeconds))
+                .maxTtl(Duration.seconds(caching.maxTtlSeconds))
+                .queryStringBehavior(queryStrings)
+                .headerBehavior(CacheHeaderBehavior.none())
+                .cookieBehavior(CacheCookieBehavior.none())
+                .enableAcceptEncodingGzip(true)
+                .enableAcceptEncodingBrotli(true)
+                .build();
+    }
+
+    private CfnOriginAccessControl createAssetOac() {
+
+        return CfnOriginAccessControl
+                .Builder
+                .create(this, "asset-oac")
+                .originAccessControlConfig(CfnOriginAccessControl.OriginAccessControlConfigProperty
+                        .builder()
+                        .name(appEnv.prefix("asset-oac-" + Stack.of(this).getRegion()))
+                        .originAccessControlOriginType("s3")
+                        .signingBehavior("always")
+                        .signingProtocol("sigv4")
+                        .build())
+                .build();
+    }
+
+    /**
+     * Turns the asset origin into an S3 origin signed by the origin access control.
+     */
+    private void attachOac(CfnOriginAccessControl oac, IBucket assetBucket) {
+
+        CfnDistribution cfnDistribution = (CfnDistribution) distribution.getNode().getDefaultChild();
+        String origin = "DistributionConfig.Origins."
+                        + findOriginIndex(cfnDistribution, assetBucket.getBucketRegionalDomainName());
+        cfnDistribution.addPropertyDeletionOverride(origin + ".CustomOriginConfig");
+        cfnDistribution.addPropertyOverride(origin + ".S3OriginConfig.OriginAccessIdentity", "");
+        cfnDistribution.addPropertyOverride(origin + ".OriginAccessControlId", oac.getAttrId());
+    }
+
+    /**
+     * The distribution renders its origins in the order its behaviors bound them, so the index of an origin is
+     * looked up by its domain name instead of relying on that order.
+     */
+    @SuppressWarnings("unchecked")
+    private int findOriginIndex(CfnDistribution cfnDistribution, String domainName) {
+
+        Stack stack = Stack.of(this);
+        Object resolvedDomainName = stack.resolve(domainName);
+        Map<String, Object> distributionConfig =
+                (Map<String, Object>) stack.resolve(cfnDistribution.getDistributionConfig());
+        List<Map<String, Object>> origins = (List<Map<String, Object>>) distributionConfig.get("origins");
+
+        for (int i = 0; i < origins.size(); i++) {
+            if (resolvedDomainName.equals(origins.get(i).get("domainName"))) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("The distribution has no origin for " + domainName);
+    }
+
+    /**
+     * The asset bucket is managed outside of this stack, so its policy can't be extended here. Instead the
+     * statement granting the distribution read access is emitted for the bucket owner.
+     */
+    private String createAssetBucketPolicyStatement(IBucket assetBucket) {
+
+        return Stack.of(this).toJsonString(Map.of(
+                "Effect", "Allow",
+                "Principal", Map.of("Service", "cloudfront.amazonaws.com"),
+                "Action", "s3:GetObject",
+                "Resource", assetBucket.arnForObjects("static/*"),
+                "Condition", Map.of("StringEquals", Map.of("AWS:SourceArn", List.of(
+                        "arn:" + Stack.of(this).getPartition() + ":cloudfront::" + Stack.of(this).getAccount()
+                        + ":distribution/" + distribution.getDistributionId())))));
+    }
+
+    public ContentDeliveryOutputParameters getOutputParameters() {
+
+        return new ContentDeliveryOutputParameters(distribution.getDistributionId(),
+                distribution.getDistributionDomainName());
+    }
+
+    public static class ContentDeliveryInputParameters {
+
+        private final IApplicationLoadBalancer alb;
+        private final String                   s3Arn;
+        private final PriceClass               priceClass;
+        private final CachingParameters        appCaching;
+        private final CachingParameters        staticCaching;
+
+        /**
+         * @param alb           the load balancer in front of the app, the default origin.
+         * @param s3Arn         the ARN of the bucket serving <code>/static/*</code>.
+         * @param appCaching    the TTLs of app responses. These only bound what the app's Cache-Control headers ask
+         *                      for, a default TTL of 0 caches nothing the app doesn't mark as cacheable.
+         * @param staticCaching the TTLs of static assets.
+         */
+        public ContentDeliveryInputParameters(
+                IApplicationLoadBalancer alb, String s3Arn, PriceClass priceClass, CachingParameters appCaching,
+                CachingParameters staticCaching) {
+
+            this.alb           = alb;
+            this.s3Arn         = s3Arn;
+            this.priceClass    = priceClass;
+            this.appCaching    = appCaching;
+            this.staticCaching = staticCaching;
+        }
+    }
+
+    public static class CachingParameters {
+
+        private final int defaultTtlSeconds;
+        private final int maxTtlSeconds;
+
+        public CachingParameters(int defaultTtlSeconds, int maxTtlSeconds) {
+
+            if (defaultTtlSeconds < 0 || maxTtlSeconds < defaultTtlSeconds) {
+                throw new IllegalArgumentException(String.format(
+                        "Invalid cache TTLs: default %ds, max %ds", defaultTtlSeconds, maxTtlSeconds));
+            }
+
+            this.defaultTtlSeconds = defaultTtlSeconds;
+            this.maxTtlSeconds     = maxTtlSeconds;
+        }
+
+        private boolean isCaching() {
+
+            return maxTtlSeconds > 0;
+        }
+    }
+
+    @Getter
+    public static class ContentDeliveryOutputParameters {
+
+        private final String distributionId;
+        private final String distributionDomainName;
+
+        public ContentDeliveryOutputParameters(String distributionId, String distributionDomainName) {
+
+            this.distributionId         = distributionId;
+            this.distributionDomainName = distributionDomainName;
+        }
+    }
+}
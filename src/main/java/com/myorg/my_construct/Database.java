@@ -1,19 +1,52 @@
 package com.myorg.my_construct;
 
 import com.myorg.util.ApplicationEnvironment;
+import com.myorg.util.InstanceSizing;
+import lombok.Getter;
+import software.amazon.awscdk.CfnOutput;
+import software.amazon.awscdk.Duration;
+import software.amazon.awscdk.Fn;
 import software.amazon.awscdk.RemovalPolicy;
+import software.amazon.awscdk.Stack;
 import software.amazon.awscdk.services.ec2.*;
 import software.amazon.awscdk.services.ec2.InstanceType;
+import software.amazon.awscdk.services.iam.IGrantable;
+import software.amazon.awscdk.services.iam.IRole;
+import software.amazon.awscdk.services.iam.ManagedPolicy;
+import software.amazon.awscdk.services.iam.Role;
+import software.amazon.awscdk.services.iam.ServicePrincipal;
+import software.amazon.awscdk.services.kms.IKey;
+import software.amazon.awscdk.services.kms.Key;
+import software.amazon.awscdk.services.logs.RetentionDays;
 import software.amazon.awscdk.services.rds.*;
 import software.amazon.awscdk.services.secretsmanager.Secret;
 import software.amazon.awscdk.services.secretsmanager.SecretStringGenerator;
+import software.amazon.awscdk.services.ssm.StringParameter;
 import software.constructs.Construct;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public class Database extends Construct {
 
+    private static final List<String> SMALL_INSTANCE_SIZES = List.of("nano", "micro", "small");
+
     private final ApplicationEnvironment appEnv;
+    private final String                 username;
+    private final IRole                  monitoringRole;
+    private final IKey                   performanceInsightKey;
+    private final EngineMode             engineMode;
+    private final Secret                 dbSecret;
+    private final DatabaseInstance       dbInstance;
+    private final DatabaseCluster        dbCluster;
+    private final DatabaseProxy          dbProxy;
+
+    private final List<DatabaseInstanceReadReplica> readReplicas;
 
     public Database(
             Construct scope, String id, ApplicationEnvironment appEnv,
@@ -21,31 +54,83 @@ public class Database extends Construct {
 
         super(scope, id);
 
-        this.appEnv = appEnv;
+        this.appEnv     = appEnv;
+        this.username   = databaseInputParameters.username;
+        this.engineMode = databaseInputParameters.engineMode;
 
         SecurityGroup dbSg = createDbSg(networkOutputParameters.getVpc(), databaseInputParameters.appSgId,
                 databaseInputParameters.bhSgId);
-        Secret      dbSecret      = createDbSecret(databaseInputParameters.username);
+        dbSecret = createDbSecret(databaseInputParameters.username);
         SubnetGroup dbSubnetGroup = createDbSubnetGroup(networkOutputParameters.getVpc());
-        DatabaseInstance dbInstance = createDbInstance(dbSecret, networkOutputParameters.getVpc(), dbSubnetGroup, dbSg);
+
+        DiagnosticsParameters diagnostics = databaseInputParameters.diagnostics;
+        monitoringRole        = diagnostics.monitoringIntervalSeconds > 0 ? createMonitoringRole() : null;
+        performanceInsightKey = diagnostics.performanceInsightsKmsKeyArn != null
+                ? Key.fromKeyArn(this, "performance-insights-key", diagnostics.performanceInsightsKmsKeyArn)
+                : null;
+        ParameterGroup dbParameterGroup = createDbParameterGroup("db-parameter-group",
+                engineMode == EngineMode.AURORA_SERVERLESS ? null : databaseInputParameters.sizing.getInstanceType(),
+                databaseInputParameters.storage, diagnostics.logExports, databaseInputParameters.parameters.overrides);
+
+        if (engineMode.isAurora()) {
+            dbInstance   = null;
+            dbCluster    = createDbCluster(dbSecret, networkOutputParameters.getVpc(), dbSubnetGroup, dbSg,
+                    dbParameterGroup, databaseInputParameters);
+            readReplicas = List.of();
+        } else {
+            dbInstance   = createDbInstance(dbSecret, networkOutputParameters.getVpc(),
+                    networkOutputParameters.getPrimaryAvailabilityZone(), dbSubnetGroup, dbSg, dbParameterGroup,
+                    databaseInputParameters);
+            dbCluster    = null;
+            readReplicas = createReadReplicas(networkOutputParameters.getVpc(), dbSubnetGroup, dbSg,
+                    networkOutputParameters.getAvailabilityZones(), databaseInputParameters);
+        }
+        dbProxy = databaseInputParameters.proxy != null
+                ? createDbProxy(dbSecret, networkOutputParameters.getVpc(), dbSg, databaseInputParameters.proxy)
+                : null;
+
+        exportEndpoints(getWriterEndpoint(), getReaderEndpoints());
 
         appEnv.tag(this);
     }
 
     private DatabaseInstance createDbInstance(
-            Secret dbSecret, IVpc vpc, ISubnetGroup subnetGroup, ISecurityGroup dbSg) {
+            Secret dbSecret, IVpc vpc, String availabilityZone, ISubnetGroup subnetGroup, ISecurityGroup dbSg,
+            IParameterGroup parameterGroup, DatabaseInputParameters inputParameters) {
+
+        StorageParameters     storage     = inputParameters.storage;
+        DiagnosticsParameters diagnostics = inputParameters.diagnostics;
+        MaintenanceParameters maintenance = inputParameters.maintenance;
 
         return DatabaseInstance
                 .Builder
                 .create(this, "ads")
-                .engine(DatabaseInstanceEngine.mysql(
-                        MySqlInstanceEngineProps.builder().version(MysqlEngineVersion.VER_8_0_32).build()))
+                .engine(mysqlEngine())
                 .instanceIdentifier(appEnv.prefix("database"))
                 .credentials(Credentials.fromSecret(dbSecret))
-                .instanceType(InstanceType.of(InstanceClass.BURSTABLE3, InstanceSize.MICRO))
-                .storageType(StorageType.GP2)
-                .allocatedStorage(20)
-                .maxAllocatedStorage(20)
+                .instanceType(inputParameters.sizing.getInstanceType())
+                // A synchronous standby in a second AZ: failover is a DNS flip instead of a restore.
+                .multiAz(engineMode == EngineMode.MULTI_AZ)
+                // A single-AZ writer goes to the primary AZ, next to the bastion host and the cache primary.
+                .availabilityZone(engineMode == EngineMode.INSTANCE ? availabilityZone : null)
+                .storageType(storage.storageType)
+                .allocatedStorage(storage.allocatedStorage)
+                .maxAllocatedStorage(storage.getAutoscalingLimit())
+                .iops(storage.iops)
+                .storageThroughput(storage.throughput)
+                .parameterGroup(parameterGroup)
+                .enablePerformanceInsights(diagnostics.performanceInsights)
+                .performanceInsightRetention(diagnostics.getPerformanceInsightRetention())
+                .performanceInsightEncryptionKey(performanceInsightKey)
+                .monitoringInterval(diagnostics.getMonitoringInterval())
+                .monitoringRole(monitoringRole)
+                .cloudwatchLogsExports(diagnostics.getLogExports())
+                .cloudwatchLogsRetention(diagnostics.logRetention)
+                .backupRetention(Duration.days(maintenance.backupRetentionDays))
+                .preferredBackupWindow(maintenance.backupWindow)
+                .deleteAutomatedBackups(maintenance.deleteAutomatedBackups)
+                .preferredMaintenanceWindow(maintenance.maintenanceWindow)
+                .autoMinorVersionUpgrade(maintenance.autoMinorVersionUpgrade)
                 .vpc(vpc)
                 .subnetGroup(subnetGroup)
                 .publiclyAccessible(false)
@@ -55,6 +140,327 @@ public class Database extends Construct {
                 .build();
     }
 
+    /**
+     * Aurora cluster with one writer and the configured number of readers. Storage is managed by Aurora and
+     * replicated over three AZs, so the storage profile doesn't apply; readers share the cluster volume and
+     * fail over without data loss.
+     */
+    private DatabaseCluster createDbCluster(
+            Secret dbSecret, IVpc vpc, ISubnetGroup subnetGroup, ISecurityGroup dbSg, IParameterGroup parameterGroup,
+            DatabaseInputParameters inputParameters) {
+
+        DiagnosticsParameters diagnostics = inputParameters.diagnostics;
+        ReplicaParameters     replicas    = inputParameters.replicas;
+        MaintenanceParameters maintenance = inputParameters.maintenance;
+
+        // Readers are sized like the replicas of the instance modes and take the replica overrides, too.
+        IParameterGroup readerParameterGroup = parameterGroup;
+        if (replicas.count > 0 && !inputParameters.parameters.replicaOverrides.isEmpty()) {
+            Map<String, String> readerOverrides = new HashMap<>(inputParameters.parameters.overrides);
+            readerOverrides.putAll(inputParameters.parameters.replicaOverrides);
+            readerParameterGroup = createDbParameterGroup("db-replica-parameter-group",
+                    engineMode == EngineMode.AURORA_SERVERLESS ? null : replicas.instanceType,
+                    inputParameters.storage, diagnostics.logExports, readerOverrides);
+        }
+
+        List<IClusterInstance> readers = new ArrayList<>();
+        for (int i = 0; i < replicas.count; i++) {
+            readers.add(createClusterInstance("reader-" + (i + 1), appEnv.prefix("database-replica-" + (i + 1)),
+                    replicas.instanceType, readerParameterGroup, diagnostics, maintenance));
+        }
+
+        ServerlessCapacityParameters capacity = inputParameters.serverlessCapacity;
+
+        return DatabaseCluster
+                .Builder
+                .create(this, "aurora-cluster")
+                .engine(auroraMysqlEngine())
+                .clusterIdentifier(appEnv.prefix("database-cluster"))
+                .credentials(Credentials.fromSecret(dbSecret))
+                .writer(createClusterInstance("writer", appEnv.prefix("database"),
+                        inputParameters.sizing.getInstanceType(), parameterGroup, diagnostics, maintenance))
+                .readers(readers)
+                .serverlessV2MinCapacity(capacity != null ? capacity.minCapacity : null)
+                .serverlessV2MaxCapacity(capacity != null ? capacity.maxCapacity : null)
+                .monitoringInterval(diagnostics.getMonitoringInterval())
+                .monitoringRole(monitoringRole)
+                .cloudwatchLogsExports(diagnostics.getLogExports())
+                .cloudwatchLogsRetention(diagnostics.logRetention)
+                .backup(BackupProps
+                        .builder()
+                        .retention(Duration.days(maintenance.backupRetentionDays))
+                        .preferredWindow(maintenance.backupWindow)
+                        .build())
+                .preferredMaintenanceWindow(maintenance.maintenanceWindow)
+                .vpc(vpc)
+                .subnetGroup(subnetGroup)
+                .securityGroups(List.of(dbSg))
+                .storageEncrypted(true)
+                .iamAuthentication(true)
+                .removalPolicy(RemovalPolicy.DESTROY)
+                .build();
+    }
+
+    /**
+     * A provisioned instance of the given type or, in serverless mode, a Serverless v2 instance. Serverless
+     * readers scale with the writer, so they can take over its load on failover.
+     */
+    private IClusterInstance createClusterInstance(
+            String id, String instanceIdentifier, InstanceType instanceType, IParameterGroup parameterGroup,
+            DiagnosticsParameters diagnostics, MaintenanceParameters maintenance) {
+
+        if (engineMode == EngineMode.AURORA_SERVERLESS) {
+            return ClusterInstance.serverlessV2(id, ServerlessV2ClusterInstanceProps
+                    .builder()
+                    .instanceIdentifier(instanceIdentifier)
+                    .scaleWithWriter(true)
+                    .parameterGroup(parameterGroup)
+                    .enablePerformanceInsights(diagnostics.performanceInsights)
+                    .performanceInsightRetention(diagnostics.getPerformanceInsightRetention())
+                    .performanceInsightEncryptionKey(performanceInsightKey)
+                    .preferredMaintenanceWindow(maintenance.maintenanceWindow)
+                    .autoMinorVersionUpgrade(maintenance.autoMinorVersionUpgrade)
+                    .publiclyAccessible(false)
+                    .build());
+        }
+
+        return ClusterInstance.provisioned(id, ProvisionedClusterInstanceProps
+                .builder()
+                .instanceIdentifier(instanceIdentifier)
+                .instanceType(instanceType)
+                .parameterGroup(parameterGroup)
+                .enablePerformanceInsights(diagnostics.performanceInsights)
+                .performanceInsightRetention(diagnostics.getPerformanceInsightRetention())
+                .performanceInsightEncryptionKey(performanceInsightKey)
+                .preferredMaintenanceWindow(maintenance.maintenanceWindow)
+                .autoMinorVersionUpgrade(maintenance.autoMinorVersionUpgrade)
+                .publiclyAccessible(false)
+                .build());
+    }
+
+    private IInstanceEngine mysqlEngine() {
+
+        return DatabaseInstanceEngine.mysql(
+                MySqlInstanceEngineProps.builder().version(MysqlEngineVersion.VER_8_0_32).build());
+    }
+
+    private IClusterEngine auroraMysqlEngine() {
+
+        return DatabaseClusterEngine.auroraMysql(
+                AuroraMysqlClusterEngineProps.builder().version(AuroraMysqlEngineVersion.VER_3_03_0).build());
+    }
+
+    /**
+     * Builds a parameter group tuned to the instance size and storage profile, with the per-environment overrides
+     * on top.
+     *
+     * @param instanceType the instance class or <code>null</code> for Aurora Serverless v2.
+     */
+    private ParameterGroup createDbParameterGroup(
+            String id, InstanceType instanceType, StorageParameters storage, List<String> logExports,
+            Map<String, String> overrides) {
+
+        boolean smallClass = instanceType != null && SMALL_INSTANCE_SIZES.contains(getInstanceSize(instanceType));
+
+        Map<String, String> parameters = new HashMap<>();
+        // RDS evaluates these formulas against the memory of the instance class. Small classes keep more
+        // headroom for connections and the OS. Serverless v2 resizes the buffer pool with its capacity itself.
+        if (instanceType != null) {
+            parameters.put("innodb_buffer_pool_size",
+                    smallClass ? "{DBInstanceClassMemory*1/2}" : "{DBInstanceClassMemory*3/4}");
+        }
+        parameters.put("max_connections", "LEAST({DBInstanceClassMemory/12582880},5000)");
+        parameters.put("table_open_cache", smallClass ? "2000" : "4000");
+        // Background flushing may use half of the volume's IOPS, bursts all of it. Aurora flushes to its own
+        // storage layer and doesn't expose these.
+        if (!engineMode.isAurora()) {
+            int iops = storage.getBaselineIops();
+            parameters.put("innodb_io_capacity", String.valueOf(Math.max(100, iops / 2)));
+            parameters.put("innodb_io_capacity_max", String.valueOf(Math.max(200, iops)));
+        }
+        parameters.put("long_query_time", "1");
+        // Slow query and general logs are only written, and thus exported, when they are switched on here.
+        parameters.put("slow_query_log", logExports.contains("slowquery") ? "1" : "0");
+        parameters.put("general_log", logExports.contains("general") ? "1" : "0");
+        parameters.put("log_output", "FILE");
+        parameters.putAll(overrides);
+
+        return ParameterGroup
+                .Builder
+                .create(this, id)
+                .engine(engineMode.isAurora() ? auroraMysqlEngine() : mysqlEngine())
+                .description("Parameter group for the RDS instance")
+                .parameters(parameters)
+                .build();
+    }
+
+    private Role createMonitoringRole() {
+
+        return Role
+                .Builder
+                .create(this, "db-monitoring-role")
+                .roleName(appEnv.prefix("RdsEnhancedMonitoringRole-" + Stack.of(this).getRegion()))
+                .assumedBy(ServicePrincipal.Builder.create("monitoring.rds.amazonaws.com").build())
+                .managedPolicies(List.of(
+                        ManagedPolicy.fromAwsManagedPolicyName("service-role/AmazonRDSEnhancedMonitoringRole")))
+                .build();
+    }
+
+    private DatabaseProxy createDbProxy(Secret dbSecret, IVpc vpc, SecurityGroup dbSg, ProxyParameters proxy) {
+
+        // The proxy shares the database SG, so it has to be allowed to reach the instance through it.
+        dbSg.addIngressRule(dbSg, Port.tcp(3306));
+
+        return DatabaseProxy
+                .Builder
+                .create(this, "db-proxy")
+                .proxyTarget(dbCluster != null
+                        ? ProxyTarget.fromCluster(dbCluster)
+                        : ProxyTarget.fromInstance(dbInstance))
+                .dbProxyName(appEnv.prefix("db-proxy", 60))
+                .secrets(List.of(dbSecret))
+                .vpc(vpc)
+                .vpcSubnets(SubnetSelection.builder().subnetType(SubnetType.PRIVATE_ISOLATED).build())
+                .securityGroups(List.of(dbSg))
+                .iamAuth(true)
+                .borrowTimeout(Duration.seconds(proxy.borrowTimeoutSeconds))
+                .maxConnectionsPercent(proxy.maxConnectionsPercent)
+                .maxIdleConnectionsPercent(proxy.maxIdleConnectionsPercent)
+                .build();
+    }
+
+    /**
+     * Allows the given principal to connect as the database user. Clients authenticate to the proxy with IAM
+     * tokens, the proxy logs into the database with the credentials of the secret. The replicas and Aurora readers
+     * aren't behind the proxy and their users aren't IAM-enabled, so clients read the secret to connect to them,
+     * and to any endpoint if there is no proxy.
+     */
+    public void grantConnect(IGrantable grantee) {
+
+        dbSecret.grantRead(grantee);
+        if (dbProxy != null) {
+            dbProxy.grantConnect(grantee, username);
+        }
+    }
+
+    /**
+     * Spreads the read replicas round-robin over the availability zones of the isolated subnets, starting after
+     * the primary AZ of the writer.
+     */
+    private List<DatabaseInstanceReadReplica> createReadReplicas(
+            IVpc vpc, ISubnetGroup subnetGroup, ISecurityGroup dbSg, List<String> availabilityZones,
+            DatabaseInputParameters inputParameters) {
+
+        ReplicaParameters     replicas    = inputParameters.replicas;
+        StorageParameters     storage     = inputParameters.storage;
+        DiagnosticsParameters diagnostics = inputParameters.diagnostics;
+        MaintenanceParameters maintenance = inputParameters.maintenance;
+
+        if (replicas.count == 0) {
+            return List.of();
+        }
+
+        // Replicas get their own group: their size may differ from the writer's and they take separate overrides.
+        Map<String, String> replicaOverrides = new HashMap<>(inputParameters.parameters.overrides);
+        replicaOverrides.putAll(inputParameters.parameters.replicaOverrides);
+        ParameterGroup parameterGroup = createDbParameterGroup("db-replica-parameter-group", replicas.instanceType,
+                storage, diagnostics.logExports, replicaOverrides);
+
+        List<DatabaseInstanceReadReplica> result = new ArrayList<>();
+        for (int i = 0; i < replicas.count; i++) {
+            result.add(DatabaseInstanceReadReplica
+                    .Builder
+                    .create(this, "read-replica-" + (i + 1))
+                    .sourceDatabaseInstance(dbInstance)
+                    .instanceIdentifier(appEnv.prefix("database-replica-" + (i + 1)))
+                    .instanceType(replicas.instanceType)
+                    .storageType(storage.storageType)
+                    .maxAllocatedStorage(storage.getAutoscalingLimit())
+                    .iops(storage.iops)
+                    .storageThroughput(storage.throughput)
+                    .parameterGroup(parameterGroup)
+                    .enablePerformanceInsights(diagnostics.performanceInsights)
+                    .performanceInsightRetention(diagnostics.getPerformanceInsightRetention())
+                    .performanceInsightEncryptionKey(performanceInsightKey)
+                    .monitoringInterval(diagnostics.getMonitoringInterval())
+                    .monitoringRole(monitoringRole)
+                    .cloudwatchLogsExports(diagnostics.getLogExports())
+                    .cloudwatchLogsRetention(diagnostics.logRetention)
+                    .preferredMaintenanceWindow(maintenance.maintenanceWindow)
+                    .autoMinorVersionUpgrade(maintenance.autoMinorVersionUpgrade)
+                    .availabilityZone(availabilityZones.get((i + 1) % availabilityZones.size()))
+                    .vpc(vpc)
+                    .subnetGroup(subnetGroup)
+                    .publiclyAccessible(false)
+                    .securityGroups(List.of(dbSg))
+                    .removalPolicy(RemovalPolicy.DESTROY)
+                    .build());
+        }
+
+        return result;
+    }
+
+    private String getEndpoint() {
+
+        return dbCluster != null
+                ? dbCluster.getClusterEndpoint().getHostname()
+                : dbInstance.getDbInstanceEndpointAddress();
+    }
+
+    /**
+     * Endpoint for writes: the proxy if there is one, the instance or cluster otherwise.
+     */
+    private String getWriterEndpoint() {
+
+        return dbProxy != null ? dbProxy.getEndpoint() : getEndpoint();
+    }
+
+    /**
+     * Endpoints for reads. Without replicas reads go to the writer, so the application can always split its
+     * traffic the same way. Aurora balances reads over its readers behind the single reader endpoint.
+     */
+    private List<String> getReaderEndpoints() {
+
+        if (dbCluster != null) {
+            return List.of(dbCluster.getClusterReadEndpoint().getHostname());
+        }
+        if (readReplicas.isEmpty()) {
+            return List.of(getWriterEndpoint());
+        }
+
+        return readReplicas.stream()
+                           .map(DatabaseInstanceReadReplica::getDbInstanceEndpointAddress)
+                           .collect(Collectors.toList());
+    }
+
+    /**
+     * Publishes the endpoints the application shall connect to, so that instances can resolve them at boot time.
+     */
+    private void exportEndpoints(String writerEndpoint, List<String> readerEndpoints) {
+
+        String readerEndpointList = Fn.join(",", readerEndpoints);
+
+        StringParameter.Builder.create(this, "db-writer-endpoint-parameter")
+                               .parameterName("/" + appEnv + "/database/writer-endpoint")
+                               .description("Endpoint the application sends database writes to")
+                               .stringValue(writerEndpoint)
+                               .build();
+        StringParameter.Builder.create(this, "db-reader-endpoints-parameter")
+                               .parameterName("/" + appEnv + "/database/reader-endpoints")
+                               .description("Comma-separated endpoints the application sends database reads to")
+                               .stringValue(readerEndpointList)
+                               .build();
+
+        CfnOutput.Builder.create(this, "db-writer-endpoint")
+                         .description("Endpoint the application sends database writes to")
+                         .value(writerEndpoint)
+                         .build();
+        CfnOutput.Builder.create(this, "db-reader-endpoints")
+                         .description("Comma-separated endpoints the application sends database reads to")
+                         .value(readerEndpointList)
+                         .build();
+    }
+
     private SecurityGroup createDbSg(IVpc vpc, String appSgId, String bhSgId) {
 
         SecurityGroup sg = SecurityGroup
@@ -97,17 +503,590 @@ public class Database extends Construct {
                 .build();
     }
 
+    private static String getInstanceSize(InstanceType instanceType) {
+
+        return instanceType.toString().substring(instanceType.toString().indexOf('.') + 1);
+    }
+
+    public DatabaseOutputParameters getOutputParameters() {
+
+        if (dbCluster != null) {
+            // The cluster only exposes its instance identifiers as one list, writer first.
+            List<String> instanceIdentifiers = dbCluster.getInstanceIdentifiers();
+            return new DatabaseOutputParameters(username, dbSecret.getSecretArn(), getEndpoint(),
+                    dbProxy != null ? dbProxy.getEndpoint() : null, getWriterEndpoint(), getReaderEndpoints(), false,
+                    dbCluster.getClusterIdentifier(), instanceIdentifiers.get(0),
+                    instanceIdentifiers.subList(1, instanceIdentifiers.size()));
+        }
+
+        // Without replicas, reads go to the writer endpoint and so through the proxy, if there is one.
+        return new DatabaseOutputParameters(username, dbSecret.getSecretArn(), getEndpoint(),
+                dbProxy != null ? dbProxy.getEndpoint() : null, getWriterEndpoint(), getReaderEndpoints(),
+                dbProxy != null && readReplicas.isEmpty(), null, dbInstance.getInstanceIdentifier(),
+                readReplicas.stream()
+                            .map(DatabaseInstanceReadReplica::getInstanceIdentifier)
+                            .collect(Collectors.toList()));
+    }
+
+    public enum EngineMode {
+
+        /**
+         * A single MySQL instance in one AZ.
+         */
+        INSTANCE,
+        /**
+         * A MySQL instance with a synchronous standby in a second AZ.
+         */
+        MULTI_AZ,
+        /**
+         * An Aurora MySQL cluster of provisioned instances.
+         */
+        AURORA,
+        /**
+         * An Aurora MySQL cluster of Serverless v2 instances.
+         */
+        AURORA_SERVERLESS;
+
+        public boolean isAurora() {
+            return this == AURORA || this == AURORA_SERVERLESS;
+        }
+    }
+
     public static class DatabaseInputParameters {
 
-        private final String username;
-        private final String appSgId;
-        private final String bhSgId;
+        private final String                       username;
+        private final String                       appSgId;
+        private final String                       bhSgId;
+        private final ProxyParameters              proxy;
+        private final InstanceSizing               sizing;
+        private final ReplicaParameters            replicas;
+        private final StorageParameters            storage;
+        private final DiagnosticsParameters        diagnostics;
+        private final EngineParameters             parameters;
+        private final EngineMode                   engineMode;
+        private final ServerlessCapacityParameters serverlessCapacity;
+        private final MaintenanceParameters        maintenance;
+
+        /**
+         * @param proxy              the RDS Proxy settings or <code>null</code> if the application connects to the
+         *                           instance directly.
+         * @param sizing             the size of the writer instance. RDS does not expose the CPU credit mode, so
+         *                           burstable database instances always run in their default (unlimited) mode.
+         * @param replicas           the read replicas to create next to the writer instance, or the readers of an
+         *                           Aurora cluster.
+         * @param storage            the storage profile of the writer instance and its replicas. Ignored by Aurora.
+         * @param diagnostics        the Performance Insights, enhanced monitoring and log export settings of the
+         *                           writer instance and its replicas.
+         * @param parameters         the engine parameters overriding the defaults derived from the instance size.
+         * @param engineMode         how the database is deployed.
+         * @param serverlessCapacity the capacity bounds in <code>AURORA_SERVERLESS</code> mode, ignored otherwise.
+         * @param maintenance        the backup and maintenance windows and the backup retention.
+         */
+        public DatabaseInputParameters(
+                String username, String appSgId, String bhSgId, ProxyParameters proxy, InstanceSizing sizing,
+                ReplicaParameters replicas, StorageParameters storage, DiagnosticsParameters diagnostics,
+                EngineParameters parameters, EngineMode engineMode, ServerlessCapacityParameters serverlessCapacity,
+                MaintenanceParameters maintenance) {
+
+            boolean serverless = engineMode == EngineMode.AURORA_SERVERLESS;
+            if (engineMode.isAurora() && maintenance.backupRetentionDays < 1) {
+                throw new IllegalArgumentException("Aurora keeps automated backups for at least a day");
+            }
+            if (!engineMode.isAurora() && replicas.count > 0 && maintenance.backupRetentionDays < 1) {
+                throw new IllegalArgumentException("Read replicas require automated backups of their source");
+            }
+            if (serverless && serverlessCapacity == null) {
+                throw new IllegalArgumentException("Aurora Serverless v2 requires capacity bounds");
+            }
+            if (engineMode == EngineMode.AURORA) {
+                checkAuroraSupport(sizing.getInstanceType());
+                if (replicas.count > 0) {
+                    checkAuroraSupport(replicas.instanceType);
+                }
+            }
+            if (diagnostics.performanceInsights && !serverless) {
+                DiagnosticsParameters.checkPerformanceInsightsSupport(sizing.getInstanceType());
+                if (replicas.count > 0) {
+                    DiagnosticsParameters.checkPerformanceInsightsSupport(replicas.instanceType);
+                }
+            }
+
+            this.username           = username;
+            this.appSgId            = appSgId;
+            this.bhSgId             = bhSgId;
+            this.proxy              = proxy;
+            this.sizing             = sizing;
+            this.replicas           = replicas;
+            this.storage            = storage;
+            this.diagnostics        = diagnostics;
+            this.parameters         = parameters;
+            this.engineMode         = engineMode;
+            this.serverlessCapacity = serverless ? serverlessCapacity : null;
+            this.maintenance        = maintenance;
+        }
+
+        /**
+         * Aurora MySQL 3 starts at the medium burstable classes.
+         */
+        private static void checkAuroraSupport(InstanceType instanceType) {
+
+            if (SMALL_INSTANCE_SIZES.contains(getInstanceSize(instanceType))) {
+                throw new IllegalArgumentException("Aurora MySQL does not support instance class " + instanceType);
+            }
+        }
+    }
+
+    /**
+     * Capacity bounds of Aurora Serverless v2 instances in Aurora capacity units (ACUs) of 2 GiB memory each.
+     */
+    public static class ServerlessCapacityParameters {
+
+        private final double minCapacity;
+        private final double maxCapacity;
+
+        public ServerlessCapacityParameters(double minCapacity, double maxCapacity) {
+
+            if (minCapacity < 0.5 || maxCapacity > 128 || minCapacity > maxCapacity
+                || minCapacity % 0.5 != 0 || maxCapacity % 0.5 != 0) {
+                throw new IllegalArgumentException(String.format(
+                        "Serverless v2 capacity must be 0.5-128 ACUs in steps of 0.5: min %s, max %s",
+                        minCapacity, maxCapacity));
+            }
+
+            this.minCapacity = minCapacity;
+            this.maxCapacity = maxCapacity;
+        }
+    }
+
+    public static class ProxyParameters {
+
+        private final int borrowTimeoutSeconds;
+        private final int maxConnectionsPercent;
+        private final int maxIdleConnectionsPercent;
+
+        public ProxyParameters(int borrowTimeoutSeconds, int maxConnectionsPercent, int maxIdleConnectionsPercent) {
+
+            if (maxConnectionsPercent < 1 || maxConnectionsPercent > 100
+                || maxIdleConnectionsPercent < 0 || maxIdleConnectionsPercent > maxConnectionsPercent) {
+                throw new IllegalArgumentException(String.format(
+                        "Invalid proxy connection limits: max %d%%, max idle %d%%",
+                        maxConnectionsPercent, maxIdleConnectionsPercent));
+            }
+
+            this.borrowTimeoutSeconds      = borrowTimeoutSeconds;
+            this.maxConnectionsPercent     = maxConnectionsPercent;
+            this.maxIdleConnectionsPercent = maxIdleConnectionsPercent;
+        }
+    }
+
+    public static class ReplicaParameters {
+
+        private final int          count;
+        private final InstanceType instanceType;
+
+        public ReplicaParameters(int count, InstanceType instanceType) {
+
+            if (count < 0) {
+                throw new IllegalArgumentException("Read replica count must not be negative: " + count);
+            }
+
+            this.count        = count;
+            this.instanceType = instanceType;
+        }
+    }
+
+    /**
+     * Storage profile of the database. Invalid combinations are rejected here, i.e. at synth time, instead of
+     * failing the deployment.
+     */
+    public static class StorageParameters {
+
+        /**
+         * Below this size MySQL gp3 volumes get a fixed baseline of 3000 IOPS and 125 MiB/s.
+         */
+        private static final int GP3_PROVISIONED_MIN_STORAGE = 400;
+        private static final int IO1_MIN_STORAGE             = 100;
+
+        private final StorageType storageType;
+        private final int         allocatedStorage;
+        private final int         maxAllocatedStorage;
+        private final Integer     iops;
+        private final Integer     throughput;
+
+        /**
+         * @param allocatedStorage    the initial size in GiB.
+         * @param maxAllocatedStorage the upper limit in GiB storage autoscaling may grow the volume to. Equal to
+         *                            <code>allocatedStorage</code> to turn storage autoscaling off.
+         * @param iops                the provisioned IOPS or <code>null</code> for the storage type's baseline.
+         * @param throughput          the provisioned throughput in MiB/s or <code>null</code> for the baseline.
+         */
+        public StorageParameters(
+                StorageType storageType, int allocatedStorage, int maxAllocatedStorage, Integer iops,
+                Integer throughput) {
+
+            this.storageType         = storageType;
+            this.allocatedStorage    = allocatedStorage;
+            this.maxAllocatedStorage = maxAllocatedStorage;
+            this.iops                = iops;
+            this.throughput          = throughput;
+
+            validate();
+        }
+
+        private void validate() {
+
+            if (allocatedStorage < 20) {
+                throw new IllegalArgumentException("Allocated storage must be at least 20 GiB: " + allocatedStorage);
+            }
+            if (maxAllocatedStorage != allocatedStorage && maxAllocatedStorage < allocatedStorage * 1.1) {
+                throw new IllegalArgumentException(String.format(
+                        "Max allocated storage must be at least 10%% above allocated storage (%d GiB): %d GiB",
+                        allocatedStorage, maxAllocatedStorage));
+            }
+
+            if (storageType == StorageType.GP3) {
+                if ((iops != null || throughput != null) && allocatedStorage < GP3_PROVISIONED_MIN_STORAGE) {
+                    throw new IllegalArgumentException(String.format(
+                            "gp3 IOPS and throughput can only be provisioned from %d GiB on, got %d GiB",
+                            GP3_PROVISIONED_MIN_STORAGE, allocatedStorage));
+                }
+                if (iops != null && (iops < 12000 || iops > 64000)) {
+                    throw new IllegalArgumentException("gp3 IOPS must be between 12000 and 64000: " + iops);
+                }
+                if (throughput != null && (throughput < 500 || throughput > 4000)) {
+                    throw new IllegalArgumentException(
+                            "gp3 throughput must be between 500 and 4000 MiB/s: " + throughput);
+                }
+            } else if (storageType == StorageType.IO1) {
+                if (iops == null) {
+                    throw new IllegalArgumentException("io1 storage requires provisioned IOPS");
+                }
+                if (allocatedStorage < IO1_MIN_STORAGE) {
+                    throw new IllegalArgumentException(String.format(
+                            "io1 storage must be at least %d GiB: %d", IO1_MIN_STORAGE, allocatedStorage));
+                }
+                if (iops < 1000 || iops > 256000 || iops < allocatedStorage / 2.0 || iops > allocatedStorage * 50) {
+                    throw new IllegalArgumentException(String.format(
+                            "io1 IOPS must be between 1000 and 256000 and 0.5-50 IOPS per GiB: %d IOPS for %d GiB",
+                            iops, allocatedStorage));
+                }
+                if (throughput != null) {
+                    throw new IllegalArgumentException("io1 storage does not support provisioned throughput");
+                }
+            } else if (storageType == StorageType.GP2) {
+                if (iops != null || throughput != null) {
+                    throw new IllegalArgumentException("gp2 storage does not support provisioned IOPS or throughput");
+                }
+            } else {
+                throw new IllegalArgumentException("Unsupported storage type: " + storageType);
+            }
+        }
+
+        /**
+         * @return the IOPS the volume sustains without burst credits.
+         */
+        private int getBaselineIops() {
+
+            if (storageType == StorageType.GP2) {
+                return Math.min(16000, Math.max(100, allocatedStorage * 3));
+            }
+            if (storageType == StorageType.GP3 && iops == null) {
+                return 3000;
+            }
+            return iops;
+        }
+
+        /**
+         * @return the storage autoscaling limit or <code>null</code> if storage autoscaling is off.
+         */
+        private Integer getAutoscalingLimit() {
+
+            return maxAllocatedStorage > allocatedStorage ? maxAllocatedStorage : null;
+        }
+    }
+
+    public static class EngineParameters {
+
+        private final Map<String, String> overrides;
+        private final Map<String, String> replicaOverrides;
+
+        /**
+         * @param overrides        the parameters to set on the writer instance and its replicas.
+         * @param replicaOverrides the parameters to set on the read replicas only, on top of
+         *                         <code>overrides</code>.
+         */
+        public EngineParameters(Map<String, String> overrides, Map<String, String> replicaOverrides) {
+
+            this.overrides        = overrides;
+            this.replicaOverrides = replicaOverrides;
+        }
+    }
+
+    /**
+     * When backups and maintenance run and how long backups are kept. Windows are in UTC. The backup snapshot
+     * briefly suspends I/O on a single-AZ instance and maintenance may restart it, so both belong into off-peak
+     * hours.
+     */
+    public static class MaintenanceParameters {
+
+        private static final int MINUTES_PER_DAY    = 24 * 60;
+        private static final int MINUTES_PER_WEEK   = 7 * MINUTES_PER_DAY;
+        private static final int MIN_WINDOW_MINUTES = 30;
+
+        private static final List<String> DAYS = List.of("mon", "tue", "wed", "thu", "fri", "sat", "sun");
+
+        private static final Pattern DAILY_WINDOW  = Pattern.compile("(\\d{2}):(\\d{2})-(\\d{2}):(\\d{2})");
+        private static final Pattern WEEKLY_WINDOW =
+                Pattern.compile("([a-z]{3}):(\\d{2}):(\\d{2})-([a-z]{3}):(\\d{2}):(\\d{2})");
+
+        private final String  backupWindow;
+        private final String  maintenanceWindow;
+        private final int     backupRetentionDays;
+        private final boolean deleteAutomatedBackups;
+        private final boolean autoMinorVersionUpgrade;
+
+        /**
+         * @param backupWindow            the daily backup window like <code>01:00-01:30</code> or <code>null</code>
+         *                                to let RDS choose.
+         * @param maintenanceWindow       the weekly maintenance window like <code>sun:02:00-sun:03:00</code> or
+         *                                <code>null</code> to let RDS choose.
+         * @param backupRetentionDays     how long automated backups are kept, 0 to turn them off.
+         * @param deleteAutomatedBackups  whether automated backups go with the instance. Ignored by Aurora.
+         * @param autoMinorVersionUpgrade whether minor engine upgrades are applied in the maintenance window.
+         * @param peakTrafficWindow       the daily range like <code>06:00-20:00</code> neither window may overlap,
+         *                                or <code>null</code> if there is none.
+         */
+        public MaintenanceParameters(
+                String backupWindow, String maintenanceWindow, int backupRetentionDays, boolean deleteAutomatedBackups,
+                boolean autoMinorVersionUpgrade, String peakTrafficWindow) {
+
+            if (backupRetentionDays < 0 || backupRetentionDays > 35) {
+                throw new IllegalArgumentException(
+                        "Backup retention must be between 0 and 35 days: " + backupRetentionDays);
+            }
+
+            List<int[]> backup      = backupWindow != null ? parseDailyWindow(backupWindow) : List.of();
+            List<int[]> maintenance = maintenanceWindow != null ? parseWeeklyWindow(maintenanceWindow) : List.of();
+            List<int[]> peak        = peakTrafficWindow != null ? parseDailyWindow(peakTrafficWindow) : List.of();
+            if (overlap(backup, maintenance)) {
+                throw new IllegalArgumentException(String.format(
+                        "Backup window %s overlaps maintenance window %s", backupWindow, maintenanceWindow));
+            }
+            if (overlap(backup, peak)) {
+                throw new IllegalArgumentException(String.format(
+                        "Backup window %s overlaps peak traffic %s", backupWindow, peakTrafficWindow));
+            }
+            if (overlap(maintenance, peak)) {
+                throw new IllegalArgumentException(String.format(
+                        "Maintenance window %s overlaps peak traffic %s", maintenanceWindow, peakTrafficWindow));
+            }
+
+            this.backupWindow            = backupWindow;
+            this.maintenanceWindow       = maintenanceWindow;
+            this.backupRetentionDays     = backupRetentionDays;
+            this.deleteAutomatedBackups  = deleteAutomatedBackups;
+            this.autoMinorVersionUpgrade = autoMinorVersionUpgrade;
+        }
+
+        /**
+         * Returns the occurrences of a daily window within a week as [start, end) minute ranges.
+         */
+        private static List<int[]> parseDailyWindow(String window) {
+
+            Matcher matcher = DAILY_WINDOW.matcher(window);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Daily window must look like hh24:mi-hh24:mi: " + window);
+            }
+            int start = toMinutes(window, matcher.group(1), matcher.group(2));
+            int end   = toMinutes(window, matcher.group(3), matcher.group(4));
+
+            List<int[]> result = new ArrayList<>();
+            for (int day = 0; day < DAYS.size(); day++) {
+                result.addAll(toRanges(window, day * MINUTES_PER_DAY + start, day * MINUTES_PER_DAY + end,
+                        MINUTES_PER_DAY));
+            }
+            return result;
+        }
+
+        private static List<int[]> parseWeeklyWindow(String window) {
+
+            Matcher matcher = WEEKLY_WINDOW.matcher(window);
+            if (!matcher.matches() || !DAYS.contains(matcher.group(1)) || !DAYS.contains(matcher.group(4))) {
+                throw new IllegalArgumentException("Weekly window must look like ddd:hh24:mi-ddd:hh24:mi: " + window);
+            }
+
+            int start = DAYS.indexOf(matcher.group(1)) * MINUTES_PER_DAY
+                        + toMinutes(window, matcher.group(2), matcher.group(3));
+            int end   = DAYS.indexOf(matcher.group(4)) * MINUTES_PER_DAY
+                        + toMinutes(window, matcher.group(5), matcher.group(6));
+
+            return toRanges(window, start, end, MINUTES_PER_WEEK);
+        }
+
+        private static int toMinutes(String window, String hours, String minutes) {
+
+            int h = Integer.parseInt(hours);
+            int m = Integer.parseInt(minutes);
+            if (h > 23 || m > 59) {
+                throw new IllegalArgumentException("Invalid time in window " + window);
+            }
+            return h * 60 + m;
+        }
+
+        /**
+         * Turns a window into week minute ranges. An end before the start wraps around the end of the day or week
+         * given by <code>period</code>, and a window running past the end of the week is split into two ranges.
+         */
+        private static List<int[]> toRanges(String window, int start, int end, int period) {
+
+            if (end <= start) {
+                end += period;
+            }
+            if (end - start < MIN_WINDOW_MINUTES) {
+                throw new IllegalArgumentException("Window must last at least 30 minutes: " + window);
+            }
+            if (end > MINUTES_PER_WEEK) {
+                return List.of(new int[]{start, MINUTES_PER_WEEK}, new int[]{0, end - MINUTES_PER_WEEK});
+            }
+            return List.of(new int[]{start, end});
+        }
+
+        private static boolean overlap(List<int[]> ranges, List<int[]> otherRanges) {
+
+            return ranges.stream().anyMatch(range -> otherRanges.stream().anyMatch(
+                    other -> range[0] < other[1] && other[0] < range[1]));
+        }
+    }
+
+    public static class DiagnosticsParameters {
+
+        private static final List<Integer> MONITORING_INTERVALS = List.of(0, 1, 5, 10, 15, 30, 60);
+        // The audit log needs the MARIADB_AUDIT_PLUGIN option group, which isn't set up here.
+        private static final List<String>  LOG_TYPES            = List.of("error", "general", "slowquery");
+
+        /**
+         * Instance classes Performance Insights does not support for MySQL.
+         */
+        private static final Pattern PERFORMANCE_INSIGHTS_UNSUPPORTED = Pattern.compile("t(2|3|4g)\\.(micro|small)");
+
+        private final boolean       performanceInsights;
+        private final int           performanceInsightsRetentionDays;
+        private final String        performanceInsightsKmsKeyArn;
+        private final int           monitoringIntervalSeconds;
+        private final List<String>  logExports;
+        private final RetentionDays logRetention;
+
+        /**
+         * @param performanceInsightsRetentionDays 7 (free tier), a multiple of 31 up to 713, or 731.
+         * @param performanceInsightsKmsKeyArn     the key to encrypt Performance Insights data with or
+         *                                         <code>null</code> for the AWS managed key.
+         * @param monitoringIntervalSeconds        the enhanced monitoring interval or 0 to turn it off.
+         * @param logExports                       the logs to export to CloudWatch Logs.
+         * @param logRetention                     how long exported logs are kept.
+         */
+        public DiagnosticsParameters(
+                boolean performanceInsights, int performanceInsightsRetentionDays,
+                String performanceInsightsKmsKeyArn, int monitoringIntervalSeconds, List<String> logExports,
+                RetentionDays logRetention) {
+
+            if (!MONITORING_INTERVALS.contains(monitoringIntervalSeconds)) {
+                throw new IllegalArgumentException(
+                        "Enhanced monitoring interval must be one of " + MONITORING_INTERVALS + ": "
+                        + monitoringIntervalSeconds);
+            }
+            if (!LOG_TYPES.containsAll(logExports)) {
+                throw new IllegalArgumentException("Log exports must be any of " + LOG_TYPES + ": " + logExports);
+            }
+
+            this.performanceInsights              = performanceInsights;
+            this.performanceInsightsRetentionDays = performanceInsightsRetentionDays;
+            this.performanceInsightsKmsKeyArn     = performanceInsights ? performanceInsightsKmsKeyArn : null;
+            this.monitoringIntervalSeconds        = monitoringIntervalSeconds;
+            this.logExports                       = logExports;
+            this.logRetention                     = logRetention;
+
+            // Fails on retention periods Performance Insights does not offer.
+            getPerformanceInsightRetention();
+        }
+
+        private static void checkPerformanceInsightsSupport(InstanceType instanceType) {
+
+            if (PERFORMANCE_INSIGHTS_UNSUPPORTED.matcher(instanceType.toString()).matches()) {
+                throw new IllegalArgumentException(
+                        "Performance Insights is not supported for MySQL on " + instanceType);
+            }
+        }
+
+        private PerformanceInsightRetention getPerformanceInsightRetention() {
+
+            if (!performanceInsights) {
+                return null;
+            }
+            if (performanceInsightsRetentionDays == 7) {
+                return PerformanceInsightRetention.DEFAULT;
+            }
+            if (performanceInsightsRetentionDays == 731) {
+                return PerformanceInsightRetention.LONG_TERM;
+            }
+            int months = performanceInsightsRetentionDays / 31;
+            if (performanceInsightsRetentionDays % 31 != 0 || months < 1 || months > 23) {
+                throw new IllegalArgumentException(
+                        "Performance Insights retention must be 7, a multiple of 31 up to 713, or 731 days: "
+                        + performanceInsightsRetentionDays);
+            }
+            return PerformanceInsightRetention.valueOf("MONTHS_" + months);
+        }
+
+        private Duration getMonitoringInterval() {
+
+            return monitoringIntervalSeconds > 0 ? Duration.seconds(monitoringIntervalSeconds) : null;
+        }
+
+        private List<String> getLogExports() {
+
+            return logExports.isEmpty() ? null : logExports;
+        }
+    }
+
+    @Getter
+    public static class DatabaseOutputParameters {
+
+        private final String       username;
+        private final String       secretArn;
+        private final String       endpoint;
+        private final String       proxyEndpoint;
+        private final String       writerEndpoint;
+        private final List<String> readerEndpoints;
+        private final boolean      readerIamAuth;
+        private final String       clusterIdentifier;
+        private final String       instanceIdentifier;
+        private final List<String> replicaIdentifiers;
 
-        public DatabaseInputParameters(String username, String appSgId, String bhSgId) {
+        /**
+         * @param secretArn          the secret holding the credentials of the database user.
+         * @param proxyEndpoint      the proxy, which takes IAM authentication only, or <code>null</code> if there is
+         *                           none.
+         * @param readerIamAuth      whether the reader endpoints are the proxy too, taking IAM authentication only.
+         *                           Otherwise clients connect to them with the credentials of the secret.
+         * @param clusterIdentifier  the Aurora cluster or <code>null</code> if the database runs on instances.
+         * @param instanceIdentifier the writer instance.
+         * @param replicaIdentifiers the read replicas or Aurora readers.
+         */
+        public DatabaseOutputParameters(
+                String username, String secretArn, String endpoint, String proxyEndpoint, String writerEndpoint,
+                List<String> readerEndpoints, boolean readerIamAuth, String clusterIdentifier,
+                String instanceIdentifier, List<String> replicaIdentifiers) {
 
-            this.username = username;
-            this.appSgId  = appSgId;
-            this.bhSgId   = bhSgId;
+            this.username           = username;
+            this.secretArn          = secretArn;
+            this.endpoint           = endpoint;
+            this.proxyEndpoint      = proxyEndpoint;
+            this.writerEndpoint     = writerEndpoint;
+            this.readerEndpoints    = readerEndpoints;
+            this.readerIamAuth      = readerIamAuth;
+            this.clusterIdentifier  = clusterIdentifier;
+            this.instanceIdentifier = instanceIdentifier;
+            this.replicaIdentifiers = replicaIdentifiers;
         }
     }
 }
@@ -0,0 +1,215 @@
+package com.myorg.my_construct;
+
+import com.myorg.util.ApplicationEnvironment;
+import com.myorg.util.InstanceSizing;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.services.autoscaling.AutoScalingGroup;
+import software.amazon.awscdk.services.ec2.*;
+import software.amazon.awscdk.services.iam.*;
+import software.constructs.Construct;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * A fleet of instances in the VPC that send a paced HTTP scenario against the app once they booted, and publish
+ * latency percentiles, throughput and errors per minute to the <code>LoadGenerator</code> CloudWatch namespace.
+ * To run the scenario again, start an instance refresh of the fleet.
+ */
+public class LoadGenerator extends Construct {
+
+    public static final String METRIC_NAMESPACE = "LoadGenerator";
+
+    private static final String SCENARIO_RESOURCE = "/load-generator/scenario.py";
+    private static final String SCENARIO_PATH     = "/opt/load-generator/scenario.py";
+
+    private final ApplicationEnvironment appEnv;
+
+    public LoadGenerator(
+            Construct scope, String id, ApplicationEnvironment appEnv,
+            LoadGeneratorInputParameters loadGeneratorInputParameters,
+            Network.NetworkOutputParameters networkOutputParameters) {
+
+        super(scope, id);
+
+        this.appEnv = appEnv;
+
+        SecurityGroup sg = createSg(networkOutputParameters.getVpc());
+        Role role = createRole();
+        LaunchTemplate launchTemplate = createLaunchTemplate(loadGeneratorInputParameters, sg, role);
+        createFleet(networkOutputParameters.getVpc(), networkOutputParameters.getAppSubnetType(), launchTemplate,
+                loadGeneratorInputParameters.instanceCount);
+
+        appEnv.tag(this);
+    }
+
+    private LaunchTemplate createLaunchTemplate(
+            LoadGeneratorInputParameters parameters, ISecurityGroup sg, IRole role) {
+
+        List<String> command = new ArrayList<>(List.of(
+                "python3", SCENARIO_PATH,
+                "--url", quote(parameters.targetUrl),
+                "--requests-per-second", String.valueOf(parameters.requestsPerSecond),
+                "--concurrency", String.valueOf(parameters.concurrency),
+                "--duration-seconds", String.valueOf(parameters.durationSeconds),
+                "--namespace", METRIC_NAMESPACE,
+                "--dimension", quote("Environment=" + appEnv)));
+        for (String path : parameters.paths) {
+            command.add("--path");
+            command.add(quote(path));
+        }
+
+        UserData userData = UserData.forLinux();
+        userData.addCommands(
+                "mkdir -p /opt/load-generator",
+                "cat > " + SCENARIO_PATH + " <<'SCENARIO'\n" + readScenario() + "SCENARIO",
+                "export AWS_DEFAULT_REGION=" + Stack.of(this).getRegion(),
+                "nohup " + String.join(" ", command) + " > /var/log/load-generator.log 2>&1 &");
+
+        return LaunchTemplate
+                .Builder
+                .create(this, "load-generator-launch-template")
+                .launchTemplateName(appEnv.prefix("load-generator-launch-template"))
+                .machineImage(MachineImage.latestAmazonLinux2(AmazonLinux2ImageSsmParameterProps
+                        .builder()
+                        .cpuType(parameters.sizing.isArm() ? AmazonLinuxCpuType.ARM_64 : AmazonLinuxCpuType.X86_64)
+                        .build()))
+                .instanceType(parameters.sizing.getInstanceType())
+                .cpuCredits(parameters.sizing.getCpuCredits())
+                .userData(userData)
+                .securityGroup(sg)
+                .role(role)
+                .build();
+    }
+
+    private static String readScenario() {
+
+        try (InputStream in = LoadGenerator.class.getResourceAsStream(SCENARIO_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing resource " + SCENARIO_RESOURCE);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read " + SCENARIO_RESOURCE, e);
+        }
+    }
+
+    private static String quote(String argument) {
+
+        return "'" + argument.replace("'", "'\\''") + "'";
+    }
+
+    /**
+     * Runs in the app tier's subnets, so that the load takes the same way to the ALB as the app's own traffic
+     * leaving the VPC.
+     */
+    private AutoScalingGroup createFleet(
+            IVpc vpc, SubnetType subnetType, LaunchTemplate launchTemplate, int instanceCount) {
+
+        return AutoScalingGroup
+                .Builder
+                .create(this, "load-generator-asg")
+                .autoScalingGroupName(appEnv.prefix("load-generator-asg"))
+                .vpc(vpc)
+                .vpcSubnets(SubnetSelection.builder().subnetType(subnetType).build())
+                .launchTemplate(launchTemplate)
+                .minCapacity(instanceCount)
+                .maxCapacity(instanceCount)
+                .build();
+    }
+
+    private SecurityGroup createSg(IVpc vpc) {
+
+        return SecurityGroup
+                .Builder
+                .create(this, "load-generator-sg")
+                .securityGroupName(appEnv.prefix("load-generator-sg"))
+                .vpc(vpc)
+                .allowAllOutbound(true)
+                .build();
+    }
+
+    private Role createRole() {
+
+        return Role
+                .Builder
+                .create(this, "ec2-load-generator-role")
+                .roleName(appEnv.prefix("EC2LoadGeneratorRole-" + Stack.of(this).getRegion()))
+                .assumedBy(ServicePrincipal.Builder.create("ec2.amazonaws.com").build())
+                .managedPolicies(List.of(
+                        ManagedPolicy.fromAwsManagedPolicyName("AmazonSSMManagedInstanceCore")))
+                .inlinePolicies(Map.of(
+                        appEnv.prefix("putMetricDataPolicy"),
+                        PolicyDocument
+                                .Builder
+                                .create()
+                                .statements(singletonList(
+                                        PolicyStatement
+                                                .Builder.create()
+                                                        .effect(Effect.ALLOW)
+                                                        .resources(singletonList("*"))
+                                                        .actions(singletonList("cloudwatch:PutMetricData"))
+                                                        .conditions(Map.of("StringEquals", Map.of(
+                                                                "cloudwatch:namespace", METRIC_NAMESPACE)))
+                                                        .build()))
+                                .build()))
+                .build();
+    }
+
+    public static class LoadGeneratorInputParameters {
+
+        private final String         targetUrl;
+        private final InstanceSizing sizing;
+        private final int            instanceCount;
+        private final List<String>   paths;
+        private final double         requestsPerSecond;
+        private final int            concurrency;
+        private final int            durationSeconds;
+
+        /**
+         * @param targetUrl         the base URL of the app, e.g. its ALB.
+         * @param instanceCount     the number of generator instances, each sending the full rate.
+         * @param paths             the paths to request with optional weights, e.g. <code>/api/items:20</code>.
+         * @param requestsPerSecond the request rate of a single instance, kept up regardless of the app's latency.
+         * @param concurrency       the number of requests a single instance may have in flight.
+         * @param durationSeconds   how long the scenario runs after boot.
+         */
+        public LoadGeneratorInputParameters(
+                String targetUrl, InstanceSizing sizing, int instanceCount, List<String> paths,
+                double requestsPerSecond, int concurrency, int durationSeconds) {
+
+            if (instanceCount < 1 || instanceCount > 20) {
+                throw new IllegalArgumentException("Load generator count must be between 1 and 20: " + instanceCount);
+            }
+            for (String path : paths) {
+                // A colon only introduces the weight, which the scenario splits off at the last one.
+                if (!path.matches("/[^\\s':]*(:\\d+)?")) {
+                    throw new IllegalArgumentException("Invalid scenario path: " + path);
+                }
+            }
+            if (requestsPerSecond <= 0 || concurrency < 1) {
+                throw new IllegalArgumentException(String.format(
+                        "Invalid load: %s requests per second with concurrency %d", requestsPerSecond, concurrency));
+            }
+            if (durationSeconds < 60 || durationSeconds > 86400) {
+                throw new IllegalArgumentException(
+                        "Scenario duration must be between 60 and 86400 seconds: " + durationSeconds);
+            }
+
+            this.targetUrl         = targetUrl;
+            this.sizing            = sizing;
+            this.instanceCount     = instanceCount;
+            this.paths             = paths;
+            this.requestsPerSecond = requestsPerSecond;
+            this.concurrency       = concurrency;
+            this.durationSeconds   = durationSeconds;
+        }
+    }
+}
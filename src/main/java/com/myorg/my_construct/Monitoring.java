@@ -0,0 +1,229 @@
+package com.myorg.my_construct;
+
+import com.myorg.util.ApplicationEnvironment;
+import software.amazon.awscdk.Duration;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.services.cloudwatch.*;
+import software.amazon.awscdk.services.cloudwatch.actions.SnsAction;
+import software.amazon.awscdk.services.sns.Topic;
+import software.amazon.awscdk.services.sns.subscriptions.EmailSubscription;
+import software.constructs.Construct;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class Monitoring extends Construct {
+
+    /**
+     * RDS and the ALB publish their metrics every minute. EC2 publishes every five minutes without detailed
+     * monitoring, and CPU credits only every five minutes in any case.
+     */
+    private static final Duration PERIOD     = Duration.minutes(1);
+    private static final Duration EC2_PERIOD = Duration.minutes(5);
+
+    private static final double BYTES_PER_GIB = 1024 * 1024 * 1024;
+
+    private final ApplicationEnvironment appEnv;
+    private final Topic                  alarmTopic;
+
+    public Monitoring(
+            Construct scope, String id, ApplicationEnvironment appEnv,
+            MonitoringInputParameters monitoringInputParameters,
+            Service.ServiceOutputParameters serviceOutputParameters,
+            Database.DatabaseOutputParameters databaseOutputParameters,
+            BastionHost.BastionHostOutputParameters bastionHostOutputParameters) {
+
+        super(scope, id);
+
+        this.appEnv = appEnv;
+
+        alarmTopic = createAlarmTopic(monitoringInputParameters.alarmEmail);
+
+        Dashboard dashboard = Dashboard
+                .Builder
+                .create(this, "dashboard")
+                .dashboardName(appEnv.prefix("performance-" + Stack.of(this).getRegion()))
+                .build();
+
+        addAppWidgets(dashboard, monitoringInputParameters, serviceOutputParameters);
+        addBastionHostWidgets(dashboard, monitoringInputParameters, bastionHostOutputParameters);
+        addDatabaseWidgets(dashboard, monitoringInputParameters, databaseOutputParameters);
+
+        appEnv.tag(this);
+    }
+
+    private Topic createAlarmTopic(String alarmEmail) {
+
+        Topic topic = Topic.Builder.create(this, "alarm-topic")
+                                   .topicName(appEnv.prefix("performance-alarms"))
+                                   .build();
+        if (alarmEmail != null) {
+            topic.addSubscription(new EmailSubscription(alarmEmail));
+        }
+
+        return topic;
+    }
+
+    private void addAppWidgets(
+            Dashboard dashboard, MonitoringInputParameters thresholds, Service.ServiceOutputParameters service) {
+
+        Map<String, String> asgDimension = Map.of("AutoScalingGroupName", service.getAsgName());
+        Map<String, String> albDimension = Map.of("LoadBalancer", service.getAlbFullName());
+
+        Metric cpuCreditBalance = metric("AWS/EC2", "CPUCreditBalance", asgDimension, "Minimum");
+        createAlarm("app-cpu-credit-balance", cpuCreditBalance, thresholds.cpuCreditBalanceMin,
+                ComparisonOperator.LESS_THAN_THRESHOLD);
+
+        dashboard.addWidgets(
+                graph("App CPU utilization and credits",
+                        List.of(metric("AWS/EC2", "CPUUtilization", asgDimension, "Average")),
+                        List.of(cpuCreditBalance)),
+                graph("App network throughput (bytes)",
+                        List.of(metric("AWS/EC2", "NetworkIn", asgDimension, "Sum"),
+                                metric("AWS/EC2", "NetworkOut", asgDimension, "Sum")),
+                        List.of()));
+        dashboard.addWidgets(
+                graph("ALB requests and errors",
+                        List.of(metric("AWS/ApplicationELB", "RequestCount", albDimension, "Sum")),
+                        List.of(metric("AWS/ApplicationELB", "HTTPCode_Target_5XX_Count", albDimension, "Sum"))),
+                graph("ALB target response time (seconds)",
+                        List.of(metric("AWS/ApplicationELB", "TargetResponseTime", albDimension, "p50"),
+                                metric("AWS/ApplicationELB", "TargetResponseTime", albDimension, "p95"),
+                                metric("AWS/ApplicationELB", "TargetResponseTime", albDimension, "p99")),
+                        List.of()));
+    }
+
+    private void addBastionHostWidgets(
+            Dashboard dashboard, MonitoringInputParameters thresholds,
+            BastionHost.BastionHostOutputParameters bastionHost) {
+
+        Metric cpuCreditBalance = metric("AWS/EC2", "CPUCreditBalance",
+                Map.of("InstanceId", bastionHost.getBhInstanceId()), "Minimum");
+        createAlarm("bh-cpu-credit-balance", cpuCreditBalance, thresholds.cpuCreditBalanceMin,
+                ComparisonOperator.LESS_THAN_THRESHOLD);
+
+        dashboard.addWidgets(graph("Bastion host CPU credits", List.of(cpuCreditBalance), List.of()));
+    }
+
+    private void addDatabaseWidgets(
+            Dashboard dashboard, MonitoringInputParameters thresholds, Database.DatabaseOutputParameters database) {
+
+        Map<String, String> dbDimension = Map.of("DBInstanceIdentifier", database.getInstanceIdentifier());
+        // Aurora reports replica lag in milliseconds and has no volume to run out of, only local (temp) storage.
+        boolean aurora            = database.getClusterIdentifier() != null;
+        String  replicaLagMetric  = aurora ? "AuroraReplicaLag" : "ReplicaLag";
+        double  replicaLagPerSec  = aurora ? 1000 : 1;
+        String  freeStorageMetric = aurora ? "FreeLocalStorage" : "FreeStorageSpace";
+
+        Metric connections  = metric("AWS/RDS", "DatabaseConnections", dbDimension, "Maximum");
+        Metric readLatency  = metric("AWS/RDS", "ReadLatency", dbDimension, "Average");
+        Metric writeLatency = metric("AWS/RDS", "WriteLatency", dbDimension, "Average");
+        Metric freeStorage  = metric("AWS/RDS", freeStorageMetric, dbDimension, "Minimum");
+
+        createAlarm("db-connections", connections, thresholds.dbConnectionsMax,
+                ComparisonOperator.GREATER_THAN_THRESHOLD);
+        createAlarm("db-read-latency", readLatency, thresholds.readLatencyMaxMillis / 1000.0,
+                ComparisonOperator.GREATER_THAN_THRESHOLD);
+        createAlarm("db-write-latency", writeLatency, thresholds.writeLatencyMaxMillis / 1000.0,
+                ComparisonOperator.GREATER_THAN_THRESHOLD);
+        createAlarm("db-free-storage", freeStorage, thresholds.freeStorageMinGib * BYTES_PER_GIB,
+                ComparisonOperator.LESS_THAN_THRESHOLD);
+
+        List<IMetric> replicaLags = new ArrayList<>();
+        for (int i = 0; i < database.getReplicaIdentifiers().size(); i++) {
+            Metric replicaLag = metric("AWS/RDS", replicaLagMetric,
+                    Map.of("DBInstanceIdentifier", database.getReplicaIdentifiers().get(i)), "Maximum");
+            createAlarm("db-replica-lag-" + (i + 1), replicaLag, thresholds.replicaLagMaxSeconds * replicaLagPerSec,
+                    ComparisonOperator.GREATER_THAN_THRESHOLD);
+            replicaLags.add(replicaLag);
+        }
+
+        dashboard.addWidgets(
+                graph("Database connections and CPU",
+                        List.of(connections),
+                        List.of(metric("AWS/RDS", "CPUUtilization", dbDimension, "Average"))),
+                graph("Database read/write latency (seconds)", List.of(readLatency, writeLatency), List.of()));
+        dashboard.addWidgets(
+                graph("Database free storage (bytes) and IOPS",
+                        List.of(freeStorage),
+                        List.of(metric("AWS/RDS", "ReadIOPS", dbDimension, "Average"),
+                                metric("AWS/RDS", "WriteIOPS", dbDimension, "Average"))),
+                graph("Database network throughput (bytes/s)",
+                        List.of(metric("AWS/RDS", "NetworkReceiveThroughput", dbDimension, "Average"),
+                                metric("AWS/RDS", "NetworkTransmitThroughput", dbDimension, "Average")),
+                        List.of()));
+        if (!replicaLags.isEmpty()) {
+            String unit = aurora ? "milliseconds" : "seconds";
+            dashboard.addWidgets(graph("Database replica lag (" + unit + ")", replicaLags, List.of()));
+        }
+    }
+
+    private Metric metric(String namespace, String metricName, Map<String, String> dimensions, String statistic) {
+
+        return Metric.Builder.create()
+                             .namespace(namespace)
+                             .metricName(metricName)
+                             .dimensionsMap(dimensions)
+                             .statistic(statistic)
+                             .period("AWS/EC2".equals(namespace) ? EC2_PERIOD : PERIOD)
+                             .build();
+    }
+
+    private GraphWidget graph(String title, List<? extends IMetric> left, List<? extends IMetric> right) {
+
+        return GraphWidget.Builder.create()
+                                  .title(title)
+                                  .left(left)
+                                  .right(right)
+                                  .width(12)
+                                  .build();
+    }
+
+    /**
+     * Alarms on three consecutive breaching periods of the metric. Missing data (e.g. CPU credits of non-burstable
+     * instances) doesn't count as breaching.
+     */
+    private Alarm createAlarm(String id, Metric metric, double threshold, ComparisonOperator comparisonOperator) {
+
+        Alarm alarm = Alarm.Builder.create(this, id)
+                                   .alarmName(appEnv.prefix(id))
+                                   .metric(metric)
+                                   .threshold(threshold)
+                                   .comparisonOperator(comparisonOperator)
+                                   .evaluationPeriods(3)
+                                   .treatMissingData(TreatMissingData.NOT_BREACHING)
+                                   .build();
+        alarm.addAlarmAction(new SnsAction(alarmTopic));
+
+        return alarm;
+    }
+
+    public static class MonitoringInputParameters {
+
+        private final String alarmEmail;
+        private final double cpuCreditBalanceMin;
+        private final double dbConnectionsMax;
+        private final double readLatencyMaxMillis;
+        private final double writeLatencyMaxMillis;
+        private final double freeStorageMinGib;
+        private final double replicaLagMaxSeconds;
+
+        /**
+         * @param alarmEmail the address to notify about alarms or <code>null</code> to only publish them to the
+         *                   alarm topic.
+         */
+        public MonitoringInputParameters(
+                String alarmEmail, double cpuCreditBalanceMin, double dbConnectionsMax, double readLatencyMaxMillis,
+                double writeLatencyMaxMillis, double freeStorageMinGib, double replicaLagMaxSeconds) {
+
+            this.alarmEmail            = alarmEmail;
+            this.cpuCreditBalanceMin   = cpuCreditBalanceMin;
+            this.dbConnectionsMax      = dbConnectionsMax;
+            this.readLatencyMaxMillis  = readLatencyMaxMillis;
+            this.writeLatencyMaxMillis = writeLatencyMaxMillis;
+            this.freeStorageMinGib     = freeStorageMinGib;
+            this.replicaLagMaxSeconds  = replicaLagMaxSeconds;
+        }
+    }
+}
@@ -5,57 +5,126 @@ import software.amazon.awscdk.Tags;
 import software.amazon.awscdk.services.ec2.*;
 import software.constructs.Construct;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class Network extends Construct {
 
-    private final String envName;
-    private final IVpc   vpc;
+    private static final String S3_ENDPOINT = "s3";
+
+    private static final int VPC_CIDR_MASK            = 16;
+    private static final int DEFAULT_SUBNET_CIDR_MASK = 20;
+
+    /**
+     * Interface endpoints by the names used to select them in the context.
+     */
+    private static final Map<String, InterfaceVpcEndpointAwsService> INTERFACE_ENDPOINTS = Map.of(
+            "ssm", InterfaceVpcEndpointAwsService.SSM,
+            "ssmMessages", InterfaceVpcEndpointAwsService.SSM_MESSAGES,
+            "ec2Messages", InterfaceVpcEndpointAwsService.EC2_MESSAGES,
+            "logs", InterfaceVpcEndpointAwsService.CLOUDWATCH_LOGS,
+            "monitoring", InterfaceVpcEndpointAwsService.CLOUDWATCH);
+
+    private final String      envName;
+    private final IVpc        vpc;
+    private final NatStrategy natStrategy;
 
     public Network(Construct scope, String id, String envName, NetworkInputParams inputParams) {
 
         super(scope, id);
 
-        this.envName = envName;
+        this.envName     = envName;
+        this.natStrategy = inputParams.natStrategy;
 
-        vpc = createVpc(inputParams.az1, inputParams.az2);
+        vpc = createVpc(inputParams.availabilityZones, inputParams.natInstanceType);
 
-        configureNacls(vpc);
+        configureNacls(vpc, inputParams.endpoints.contains(S3_ENDPOINT));
+        createEndpoints(vpc, inputParams.endpoints);
 
         Tags.of(this).add("environment", envName);
     }
 
-    private Vpc createVpc(String az1, String az2) {
+    private Vpc createVpc(List<String> availabilityZones, InstanceType natInstanceType) {
+
+        int tiers    = natStrategy != NatStrategy.NONE ? 3 : 2;
+        int cidrMask = getSubnetCidrMask(tiers * availabilityZones.size());
 
         SubnetConfiguration publicSubnet1 = SubnetConfiguration
                 .builder()
                 .name(prefixWithEnvName("subnet-public"))
                 .subnetType(SubnetType.PUBLIC)
-                .cidrMask(20)
+                .cidrMask(cidrMask)
                 .build();
 
         SubnetConfiguration privateSubnet1 = SubnetConfiguration
                 .builder()
                 .name(prefixWithEnvName("subnet-private"))
                 .subnetType(SubnetType.PRIVATE_ISOLATED)
-                .cidrMask(20)
+                .cidrMask(cidrMask)
                 .build();
 
+        List<SubnetConfiguration> subnets = new ArrayList<>(List.of(publicSubnet1, privateSubnet1));
+        if (natStrategy != NatStrategy.NONE) {
+            subnets.add(SubnetConfiguration
+                    .builder()
+                    .name(prefixWithEnvName("subnet-app"))
+                    .subnetType(SubnetType.PRIVATE_WITH_EGRESS)
+                    .cidrMask(cidrMask)
+                    .build());
+        }
+
         return Vpc
                 .Builder
                 .create(this, "vpc")
                 .vpcName(prefixWithEnvName("vpc"))
                 .ipAddresses(IpAddresses.cidr("10.0.0.0/16"))
-//                .availabilityZones(List.of(az1, az2))
-                .maxAzs(2)
-                .subnetConfiguration(List.of(publicSubnet1, privateSubnet1))
+                .availabilityZones(availabilityZones)
+                .subnetConfiguration(subnets)
+                .natGateways(getNatCount(availabilityZones.size()))
+                .natGatewayProvider(natStrategy == NatStrategy.INSTANCE
+                        ? NatProvider.instance(NatInstanceProps.builder().instanceType(natInstanceType).build())
+                        : NatProvider.gateway())
                 .enableDnsHostnames(true)
                 .enableDnsSupport(true)
                 .build();
     }
 
-    private void configureNacls(IVpc vpc) {
+    /**
+     * Subnets are /20 as long as the /16 fits one per tier and AZ, and halve in size for each doubling beyond.
+     */
+    private static int getSubnetCidrMask(int subnetCount) {
+
+        int cidrMask = VPC_CIDR_MASK;
+        while (1 << (cidrMask - VPC_CIDR_MASK) < subnetCount) {
+            cidrMask++;
+        }
+
+        return Math.max(cidrMask, DEFAULT_SUBNET_CIDR_MASK);
+    }
+
+    /**
+     * A NAT gateway per AZ keeps egress in the AZ and scales its bandwidth with the AZ count. A single shared
+     * gateway or instance saves the hourly charge of the others at the cost of cross-AZ traffic and a single
+     * point of failure.
+     */
+    private int getNatCount(int azCount) {
+
+        switch (natStrategy) {
+            case PER_AZ:
+                return azCount;
+            case SHARED:
+            case INSTANCE:
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    private void configureNacls(IVpc vpc, boolean s3Endpoint) {
 
         NetworkAcl publicNacl = NetworkAcl
                 .Builder
@@ -104,6 +173,51 @@ public class Network extends Construct {
                                             .cidr(AclCidr.ipv4("10.0.0.0/16"))
                                             .ruleAction(Action.ALLOW)
                                             .build());
+
+        if (s3Endpoint) {
+            // S3 is reached on its public IP ranges through the gateway endpoint. The isolated route tables have no
+            // other route out of the VPC, so opening HTTPS in the NACL only admits the endpoint traffic.
+            privateNacl.addEntry("private-acl-s3-outbound-rule",
+                    CommonNetworkAclEntryOptions.builder()
+                                                .direction(TrafficDirection.EGRESS)
+                                                .ruleNumber(110)
+                                                .traffic(AclTraffic.tcpPort(443))
+                                                .cidr(AclCidr.anyIpv4())
+                                                .ruleAction(Action.ALLOW)
+                                                .build());
+            privateNacl.addEntry("private-acl-s3-inbound-rule",
+                    CommonNetworkAclEntryOptions.builder()
+                                                .direction(TrafficDirection.INGRESS)
+                                                .ruleNumber(110)
+                                                .traffic(AclTraffic.tcpPortRange(1024, 65535))
+                                                .cidr(AclCidr.anyIpv4())
+                                                .ruleAction(Action.ALLOW)
+                                                .build());
+        }
+    }
+
+    /**
+     * Creates the selected VPC endpoints. The S3 gateway endpoint is attached to the route tables of all subnets,
+     * the interface endpoints are placed in the isolated subnets and resolve through private DNS.
+     */
+    private void createEndpoints(IVpc vpc, List<String> endpoints) {
+
+        for (String endpoint : endpoints) {
+            if (S3_ENDPOINT.equals(endpoint)) {
+                vpc.addGatewayEndpoint("s3-endpoint", GatewayVpcEndpointOptions
+                        .builder()
+                        .service(GatewayVpcEndpointAwsService.S3)
+                        .build());
+            } else {
+                vpc.addInterfaceEndpoint(endpoint + "-endpoint", InterfaceVpcEndpointOptions
+                        .builder()
+                        .service(INTERFACE_ENDPOINTS.get(endpoint))
+                        .subnets(SubnetSelection.builder().subnetType(SubnetType.PRIVATE_ISOLATED).build())
+                        .privateDnsEnabled(true)
+                        .open(true)
+                        .build());
+            }
+        }
     }
 
     private String prefixWithEnvName(String string) {
@@ -116,38 +230,127 @@ public class Network extends Construct {
         return new NetworkOutputParameters(vpc, vpc.getVpcId(),
                 vpc.getIsolatedSubnets().stream().map(ISubnet::getSubnetId).collect(Collectors.toList()),
                 vpc.getPublicSubnets().stream().map(ISubnet::getSubnetId).collect(Collectors.toList()),
-                vpc.getAvailabilityZones());
+                vpc.getPrivateSubnets().stream().map(ISubnet::getSubnetId).collect(Collectors.toList()),
+                vpc.getAvailabilityZones(),
+                natStrategy != NatStrategy.NONE ? SubnetType.PRIVATE_WITH_EGRESS : SubnetType.PUBLIC,
+                bySubnetAz(vpc.getIsolatedSubnets()), bySubnetAz(vpc.getPublicSubnets()),
+                bySubnetAz(vpc.getPrivateSubnets()));
+    }
+
+    private static Map<String, String> bySubnetAz(List<ISubnet> subnets) {
+
+        Map<String, String> result = new LinkedHashMap<>();
+        subnets.forEach(subnet -> result.put(subnet.getAvailabilityZone(), subnet.getSubnetId()));
+
+        return result;
+    }
+
+    public enum NatStrategy {
+
+        /**
+         * No private app tier, the app runs in the public subnets.
+         */
+        NONE,
+        /**
+         * One NAT gateway per AZ.
+         */
+        PER_AZ,
+        /**
+         * One NAT gateway shared by all AZs.
+         */
+        SHARED,
+        /**
+         * One NAT instance shared by all AZs.
+         */
+        INSTANCE
     }
 
     public static class NetworkInputParams {
 
-        private final String az1, az2;
+        private final List<String> availabilityZones;
+        private final List<String> endpoints;
+        private final NatStrategy  natStrategy;
+        private final InstanceType natInstanceType;
+
+        /**
+         * @param availabilityZones the AZs to span. The first one is the primary AZ, where single-instance
+         *                          resources are placed.
+         * @param endpoints         the VPC endpoints to create: <code>s3</code> (gateway) and any of
+         *                          <code>ssm</code>, <code>ssmMessages</code>, <code>ec2Messages</code>,
+         *                          <code>logs</code> and <code>monitoring</code> (interface).
+         * @param natStrategy       how the private app tier reaches the internet. Any strategy but
+         *                          <code>NONE</code> adds the tier.
+         * @param natInstanceType   the type of the NAT instance with the <code>INSTANCE</code> strategy, ignored
+         *                          otherwise.
+         */
+        public NetworkInputParams(
+                List<String> availabilityZones, List<String> endpoints, NatStrategy natStrategy,
+                InstanceType natInstanceType) {
 
-        public NetworkInputParams(String az1, String az2) {
+            if (availabilityZones.isEmpty() || new HashSet<>(availabilityZones).size() != availabilityZones.size()) {
+                throw new IllegalArgumentException("Availability zones must be distinct and not empty: "
+                                                   + availabilityZones);
+            }
+            for (String endpoint : endpoints) {
+                if (!S3_ENDPOINT.equals(endpoint) && !INTERFACE_ENDPOINTS.containsKey(endpoint)) {
+                    throw new IllegalArgumentException("Unknown VPC endpoint: " + endpoint);
+                }
+            }
+            if (natStrategy == NatStrategy.INSTANCE && natInstanceType == null) {
+                throw new IllegalArgumentException("The INSTANCE NAT strategy requires a NAT instance type");
+            }
 
-            this.az1 = az1;
-            this.az2 = az2;
+            this.availabilityZones = availabilityZones;
+            this.endpoints         = endpoints;
+            this.natStrategy       = natStrategy;
+            this.natInstanceType   = natInstanceType;
         }
     }
 
     @Getter
     public static class NetworkOutputParameters {
 
-        private final IVpc         vpc;
-        private final String       vpcId;
-        private final List<String> publicSubnets;
-        private final List<String> privateSubnets;
-        private final List<String> availabilityZones;
+        private final IVpc                vpc;
+        private final String              vpcId;
+        private final List<String>        publicSubnets;
+        private final List<String>        privateSubnets;
+        private final List<String>        appSubnets;
+        private final List<String>        availabilityZones;
+        private final SubnetType          appSubnetType;
+        private final Map<String, String> privateSubnetsByAz;
+        private final Map<String, String> publicSubnetsByAz;
+        private final Map<String, String> appSubnetsByAz;
 
+        /**
+         * @param privateSubnets     the isolated subnets of the data tier.
+         * @param appSubnets         the subnets of the private app tier, empty if there is none.
+         * @param availabilityZones  the AZs of the VPC, the primary AZ first.
+         * @param appSubnetType      the type of the subnets the app shall run in.
+         * @param privateSubnetsByAz the isolated subnet of each AZ.
+         * @param publicSubnetsByAz  the public subnet of each AZ.
+         * @param appSubnetsByAz     the app tier subnet of each AZ, empty if there is no app tier.
+         */
         public NetworkOutputParameters(
                 IVpc vpc, String vpcId, List<String> privateSubnets, List<String> publicSubnets,
-                List<String> availabilityZones) {
+                List<String> appSubnets, List<String> availabilityZones, SubnetType appSubnetType,
+                Map<String, String> privateSubnetsByAz, Map<String, String> publicSubnetsByAz,
+                Map<String, String> appSubnetsByAz) {
 
-            this.vpc               = vpc;
-            this.vpcId             = vpcId;
-            this.privateSubnets    = privateSubnets;
-            this.publicSubnets     = publicSubnets;
-            this.availabilityZones = availabilityZones;
+            this.vpc                = vpc;
+            this.vpcId              = vpcId;
+            this.privateSubnets     = privateSubnets;
+            this.publicSubnets      = publicSubnets;
+            this.appSubnets         = appSubnets;
+            this.availabilityZones  = availabilityZones;
+            this.appSubnetType      = appSubnetType;
+            this.privateSubnetsByAz = privateSubnetsByAz;
+            this.publicSubnetsByAz  = publicSubnetsByAz;
+            this.appSubnetsByAz     = appSubnetsByAz;
+        }
+
+        public String getPrimaryAvailabilityZone() {
+
+            return availabilityZones.get(0);
         }
     }
 }
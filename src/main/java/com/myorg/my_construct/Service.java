@@ -1,20 +1,84 @@
 package com.myorg.my_construct;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.myorg.util.ApplicationEnvironment;
+import com.myorg.util.Gp3Volume;
+import com.myorg.util.InstanceSizing;
 import lombok.Getter;
+import software.amazon.awscdk.CfnOutput;
+import software.amazon.awscdk.Duration;
+import software.amazon.awscdk.Fn;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.services.autoscaling.AutoScalingGroup;
+import software.amazon.awscdk.services.autoscaling.BasicScheduledActionProps;
+import software.amazon.awscdk.services.autoscaling.CfnAutoScalingGroup;
+import software.amazon.awscdk.services.autoscaling.CfnScalingPolicy;
+import software.amazon.awscdk.services.autoscaling.CpuUtilizationScalingProps;
+import software.amazon.awscdk.services.autoscaling.ElbHealthCheckOptions;
+import software.amazon.awscdk.services.autoscaling.HealthCheck;
+import software.amazon.awscdk.services.autoscaling.PoolState;
+import software.amazon.awscdk.services.autoscaling.RequestCountScalingProps;
+import software.amazon.awscdk.services.autoscaling.RollingUpdateOptions;
+import software.amazon.awscdk.services.autoscaling.Schedule;
+import software.amazon.awscdk.services.autoscaling.Signals;
+import software.amazon.awscdk.services.autoscaling.SignalsOptions;
+import software.amazon.awscdk.services.autoscaling.UpdatePolicy;
+import software.amazon.awscdk.services.autoscaling.WarmPoolOptions;
 import software.amazon.awscdk.services.ec2.*;
+import software.amazon.awscdk.services.elasticloadbalancingv2.AddApplicationTargetsProps;
+import software.amazon.awscdk.services.elasticloadbalancingv2.ApplicationListener;
+import software.amazon.awscdk.services.elasticloadbalancingv2.ApplicationLoadBalancer;
+import software.amazon.awscdk.services.elasticloadbalancingv2.ApplicationProtocol;
+import software.amazon.awscdk.services.elasticloadbalancingv2.ApplicationTargetGroup;
+import software.amazon.awscdk.services.elasticloadbalancingv2.BaseApplicationListenerProps;
+import software.amazon.awscdk.services.elasticloadbalancingv2.IApplicationLoadBalancer;
 import software.amazon.awscdk.services.iam.*;
+import software.amazon.awscdk.services.ssm.StringParameter;
 import software.constructs.Construct;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static java.util.Collections.singletonList;
 
 public class Service extends Construct {
 
-    private final ApplicationEnvironment appEnv;
-    private final SecurityGroup          appSg;
+    private static final String DATA_DEVICE_NAME  = "/dev/sdf";
+    private static final String DATABASE_ENV_FILE = "/etc/app/database.env";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final String AGENT_CTL = "/opt/aws/amazon-cloudwatch-agent/bin/amazon-cloudwatch-agent-ctl";
+
+    private static final List<String> JVM_MEASUREMENTS = List.of(
+            "jvm.memory.heap.used",
+            "jvm.memory.heap.committed",
+            "jvm.memory.nonheap.used",
+            "jvm.gc.collections.count",
+            "jvm.gc.collections.elapsed",
+            "jvm.threads.count");
+
+    /**
+     * Instances a rack-level spread placement group holds per AZ at most.
+     */
+    private static final int SPREAD_INSTANCES_PER_AZ = 7;
+
+    /**
+     * How long a new instance has to answer its health check, before the ALB's verdict counts.
+     */
+    private static final int HEALTH_CHECK_GRACE_SECONDS = 300;
+
+    private final ApplicationEnvironment  appEnv;
+    private final SecurityGroup           appSg;
+    private final Role                    appRole;
+    private final UserData                userData;
+    private final AutoScalingGroup        appAsg;
+    private final ApplicationLoadBalancer alb;
 
     public Service(
             Construct scope, String id, ApplicationEnvironment appEnv, ServiceInputParameters serviceInputParameters,
@@ -24,34 +88,404 @@ public class Service extends Construct {
 
         this.appEnv = appEnv;
 
-        appSg = createAppSg(networkOutputParameters.getVpc());
-        Role appRole = createRole(serviceInputParameters.s3Arn);
-        Instance appInstance =
-                createAppInstance(serviceInputParameters.imageName, serviceInputParameters.keyPairName,
-                        networkOutputParameters.getVpc(), appSg, appRole);
+        checkPlacement(serviceInputParameters.placement, serviceInputParameters.sizing, serviceInputParameters.scaling,
+                networkOutputParameters.getAvailabilityZones());
+
+        SecurityGroup albSg = createAlbSg(networkOutputParameters.getVpc());
+        appSg = createAppSg(networkOutputParameters.getVpc(), serviceInputParameters.bhSgId);
+        appRole = createRole(serviceInputParameters.s3Arn);
+        // The launch template renders the user data at synth time, so commands can still be added after it.
+        userData = UserData.forLinux();
+        if (serviceInputParameters.agent != null) {
+            StringParameter agentConfig = createAgentConfig(serviceInputParameters.agent);
+            agentConfig.grantRead(appRole);
+            // Images that come with the agent keep their version.
+            userData.addCommands(
+                    "rpm -q amazon-cloudwatch-agent || yum install -y amazon-cloudwatch-agent",
+                    AGENT_CTL + " -a fetch-config -m ec2 -s -c ssm:" + agentConfig.getParameterName());
+        }
+        LaunchTemplate launchTemplate =
+                createLaunchTemplate(serviceInputParameters.imageName, serviceInputParameters.keyPairName,
+                        serviceInputParameters.sizing, serviceInputParameters.storage, userData, appSg, appRole);
+        appAsg = createAppAsg(networkOutputParameters.getVpc(), networkOutputParameters.getAppSubnetType(),
+                launchTemplate, serviceInputParameters.scaling, serviceInputParameters.deployment);
+        signalWhenHealthy(serviceInputParameters.healthCheckPath);
+        if (serviceInputParameters.placement != null) {
+            ((CfnAutoScalingGroup) appAsg.getNode().getDefaultChild())
+                    .setPlacementGroup(createPlacementGroup(serviceInputParameters.placement).getRef());
+        }
+        if (serviceInputParameters.deployment.warmPool != null) {
+            createWarmPool(appAsg, serviceInputParameters.deployment.warmPool);
+        }
+        alb = createAlb(networkOutputParameters.getVpc(), albSg);
+        ApplicationTargetGroup appTargetGroup = createAppTargetGroup(alb, appAsg,
+                serviceInputParameters.healthCheckPath, serviceInputParameters.deployment.slowStartSeconds);
+        configureScaling(appAsg, serviceInputParameters.scaling);
+
+        CfnOutput.Builder.create(this, "alb-dns-name")
+                         .description("DNS name of the application load balancer")
+                         .value(alb.getLoadBalancerDnsName())
+                         .build();
 
         appEnv.tag(this);
     }
 
-    private Instance createAppInstance(
-            String imageName, String keyPairName, IVpc vpc, ISecurityGroup sg,
-            IRole role) {
+    /**
+     * Hands the database endpoints to the app in <code>/etc/app/database.env</code>, written at boot. The IAM flags
+     * tell the app which endpoints are the proxy, to authenticate to with IAM tokens of its instance role. It logs
+     * into the others with the credentials of the secret, see {@link Database#grantConnect}.
+     */
+    public void connectTo(Database.DatabaseOutputParameters database) {
+
+        userData.addCommands(
+                "mkdir -p /etc/app",
+                "cat > " + DATABASE_ENV_FILE + " <<'DATABASE'\n"
+                + "DB_WRITER_ENDPOINT=" + database.getWriterEndpoint() + "\n"
+                + "DB_READER_ENDPOINTS=" + Fn.join(",", database.getReaderEndpoints()) + "\n"
+                + "DB_USER=" + database.getUsername() + "\n"
+                + "DB_SECRET_ARN=" + database.getSecretArn() + "\n"
+                + "DB_WRITER_IAM_AUTH=" + (database.getProxyEndpoint() != null) + "\n"
+                + "DB_READER_IAM_AUTH=" + database.isReaderIamAuth() + "\n"
+                + "DATABASE");
+    }
+
+    /**
+     * The root volume replaces the one of the image. The data volume is attached blank, for the image to format
+     * and mount for logs, temp files and caches.
+     */
+    private LaunchTemplate createLaunchTemplate(
+            String imageName, String keyPairName, InstanceSizing sizing, BlockStorageParameters storage,
+            UserData userData, ISecurityGroup sg, IRole role) {
+
+        LookupMachineImageProps.Builder imageProps = LookupMachineImageProps.builder().name(imageName);
+        if (sizing.isArm()) {
+            imageProps.filters(Map.of("architecture", List.of("arm64")));
+        }
+
+        List<Gp3Volume>   volumes      = new ArrayList<>();
+        List<BlockDevice> blockDevices = new ArrayList<>();
+        volumes.add(storage.rootVolume);
+        blockDevices.add(storage.rootVolume.toBlockDevice(storage.rootDeviceName));
+        if (storage.dataVolume != null) {
+            volumes.add(storage.dataVolume);
+            blockDevices.add(storage.dataVolume.toBlockDevice(DATA_DEVICE_NAME));
+        }
 
-        return Instance
+        LaunchTemplate launchTemplate = LaunchTemplate
                 .Builder
-                .create(this, "app-instance")
-                .instanceName(appEnv.prefix("app-instance"))
-                .machineImage(MachineImage.lookup(LookupMachineImageProps.builder().name(imageName).build()))
-                .instanceType(InstanceType.of(InstanceClass.BURSTABLE2, InstanceSize.MICRO))
+                .create(this, "app-launch-template")
+                .launchTemplateName(appEnv.prefix("app-launch-template"))
+                .machineImage(MachineImage.lookup(imageProps.build()))
+                .instanceType(sizing.getInstanceType())
+                .cpuCredits(sizing.getCpuCredits())
+                .blockDevices(blockDevices)
+                .userData(userData)
                 .keyName(keyPairName)
+                .securityGroup(sg)
+                .role(role)
+                .build();
+
+        // Neither gp3 throughput nor EBS optimization are exposed by the L2 launch template yet.
+        CfnLaunchTemplate cfnLaunchTemplate = (CfnLaunchTemplate) launchTemplate.getNode().getDefaultChild();
+        for (int i = 0; i < volumes.size(); i++) {
+            if (volumes.get(i).getThroughputMibps() != null) {
+                cfnLaunchTemplate.addPropertyOverride("LaunchTemplateData.BlockDeviceMappings." + i
+                                                      + ".Ebs.Throughput", volumes.get(i).getThroughputMibps());
+            }
+        }
+        if (storage.ebsOptimized) {
+            cfnLaunchTemplate.addPropertyOverride("LaunchTemplateData.EbsOptimized", true);
+        }
+
+        return launchTemplate;
+    }
+
+    /**
+     * Stores the CloudWatch agent configuration in the parameter store, where the agent fetches it from at boot.
+     * Besides memory, disk and TCP connection metrics of the OS, the agent takes custom metrics from the app via
+     * StatsD on UDP port 8125 and as embedded metric format logs on port 25888, and polls the JVM via JMX. All
+     * metrics are aggregated per ASG as well.
+     */
+    private StringParameter createAgentConfig(CloudWatchAgentParameters agent) {
+
+        ObjectNode metricsCollected = OBJECT_MAPPER.createObjectNode();
+        metricsCollected.putObject("mem").set("measurement", stringArray(List.of("mem_used_percent", "mem_available")));
+        ObjectNode disk = metricsCollected.putObject("disk");
+        disk.set("measurement", stringArray(List.of("used_percent", "inodes_free")));
+        disk.set("resources", stringArray(List.of("*")));
+        disk.set("ignore_file_system_types", stringArray(List.of("sysfs", "devtmpfs", "tmpfs")));
+        metricsCollected.putObject("diskio").set("measurement", stringArray(List.of("io_time", "iops_in_progress")));
+        metricsCollected.putObject("netstat").set("measurement", stringArray(List.of("tcp_established",
+                "tcp_time_wait")));
+        if (agent.statsd) {
+            metricsCollected.putObject("statsd")
+                            .put("service_address", ":8125")
+                            .put("metrics_collection_interval", agent.collectionIntervalSeconds)
+                            .put("metrics_aggregation_interval", 60);
+        }
+        if (agent.jmxPort != null) {
+            ObjectNode jmx = metricsCollected.putArray("jmx").addObject();
+            jmx.put("endpoint", "localhost:" + agent.jmxPort);
+            jmx.putObject("jvm").set("measurement", stringArray(JVM_MEASUREMENTS));
+        }
+
+        ObjectNode config = OBJECT_MAPPER.createObjectNode();
+        config.putObject("agent").put("metrics_collection_interval", agent.collectionIntervalSeconds);
+        ObjectNode metrics = config.putObject("metrics");
+        metrics.put("namespace", "CWAgent");
+        metrics.putObject("append_dimensions")
+               .put("AutoScalingGroupName", "${aws:AutoScalingGroupName}")
+               .put("InstanceId", "${aws:InstanceId}");
+        metrics.putArray("aggregation_dimensions").addArray().add("AutoScalingGroupName");
+        metrics.set("metrics_collected", metricsCollected);
+        if (agent.emf) {
+            config.putObject("logs").putObject("metrics_collected").putObject("emf");
+        }
+
+        return StringParameter.Builder.create(this, "cloudwatch-agent-config")
+                                      // The CloudWatch agent policies only grant access to this prefix.
+                                      .parameterName("AmazonCloudWatch-" + appEnv.prefix("app"))
+                                      .description("CloudWatch agent configuration of the app instances")
+                                      .stringValue(config.toString())
+                                      .build();
+    }
+
+    private static ArrayNode stringArray(List<String> values) {
+
+        ArrayNode array = OBJECT_MAPPER.createArrayNode();
+        values.forEach(array::add);
+        return array;
+    }
+
+    /**
+     * A cluster placement group lives in a single AZ, a spread one holds a limited number of instances per AZ.
+     */
+    private static void checkPlacement(PlacementParameters placement, InstanceSizing sizing, ScalingParameters scaling,
+                                       List<String> availabilityZones) {
+
+        if (placement == null) {
+            return;
+        }
+        if (placement.strategy == PlacementStrategy.CLUSTER && sizing.isBurstable()) {
+            throw new IllegalArgumentException("A cluster placement group gains nothing for burstable instances: "
+                                               + sizing);
+        }
+        if (placement.strategy == PlacementStrategy.CLUSTER && availabilityZones.size() > 1) {
+            throw new IllegalArgumentException("A cluster placement group can't span the " + availabilityZones.size()
+                                               + " AZs of the app tier");
+        }
+        if (placement.strategy == PlacementStrategy.SPREAD
+            && scaling.maxCapacity > SPREAD_INSTANCES_PER_AZ * availabilityZones.size()) {
+            throw new IllegalArgumentException(String.format(
+                    "A spread placement group holds %d instances per AZ, fewer than the max capacity of %d",
+                    SPREAD_INSTANCES_PER_AZ, scaling.maxCapacity));
+        }
+    }
+
+    private CfnPlacementGroup createPlacementGroup(PlacementParameters placement) {
+
+        return CfnPlacementGroup.Builder
+                .create(this, "app-placement-group")
+                .strategy(placement.strategy.name().toLowerCase())
+                .spreadLevel(placement.strategy == PlacementStrategy.SPREAD ? "rack" : null)
+                .partitionCount(placement.partitionCount)
+                .build();
+    }
+
+    /**
+     * Runs the app in the private app tier if the network has one, so that it is only reachable through the ALB
+     * and its traffic to the database stays in the VPC.
+     * <p>
+     * A new image or instance type creates a new launch template version, which CloudFormation rolls out in
+     * batches, keeping the minimum healthy share of the instances in service. Each batch waits for the signals of
+     * its instances, see {@link #signalWhenHealthy}, and fails the update if they don't come within the health
+     * check grace period plus the warm-up, an hour at most. Until its warm-up is over, a new instance doesn't
+     * count into the scaling metrics, so that its cold JVM doesn't trigger a scale-out.
+     */
+    private AutoScalingGroup createAppAsg(
+            IVpc vpc, SubnetType subnetType, LaunchTemplate launchTemplate, ScalingParameters scaling,
+            DeploymentParameters deployment) {
+
+        int minInstancesInService = deployment.getMinInstancesInService(scaling.minCapacity);
+        // CloudFormation waits an hour at most.
+        int signalTimeoutSeconds  = Math.min(3600, HEALTH_CHECK_GRACE_SECONDS + deployment.instanceWarmupSeconds);
+
+        return AutoScalingGroup
+                .Builder
+                .create(this, "app-asg")
+                .autoScalingGroupName(appEnv.prefix("app-asg"))
+                .vpc(vpc)
+                .vpcSubnets(SubnetSelection.builder().subnetType(subnetType).build())
+                .launchTemplate(launchTemplate)
+                .minCapacity(scaling.minCapacity)
+                .maxCapacity(scaling.maxCapacity)
+                .healthCheck(HealthCheck.elb(ElbHealthCheckOptions
+                        .builder()
+                        .grace(Duration.seconds(HEALTH_CHECK_GRACE_SECONDS))
+                        .build()))
+                .defaultInstanceWarmup(Duration.seconds(deployment.instanceWarmupSeconds))
+                .signals(Signals.waitForMinCapacity(SignalsOptions
+                        .builder()
+                        .timeout(Duration.seconds(signalTimeoutSeconds))
+                        .build()))
+                .updatePolicy(UpdatePolicy.rollingUpdate(RollingUpdateOptions
+                        .builder()
+                        .minInstancesInService(minInstancesInService)
+                        .maxBatchSize(Math.max(1, scaling.minCapacity - minInstancesInService))
+                        .waitOnResourceSignals(true)
+                        .pauseTime(Duration.seconds(signalTimeoutSeconds))
+                        .build()))
+                .build();
+    }
+
+    /**
+     * Signals the instance to CloudFormation once the app answers its health check on the instance itself, or
+     * failed to within the grace period. Both run when the user data exits, after all its commands, whichever
+     * were added last.
+     */
+    private void signalWhenHealthy(String healthCheckPath) {
+
+        userData.addOnExitCommands(
+                "if [ $exitCode -eq 0 ]; then probeUntil=$((SECONDS + " + HEALTH_CHECK_GRACE_SECONDS + "));"
+                + " until curl -fs -o /dev/null 'http://localhost:80" + healthCheckPath.replace("'", "'\\''")
+                + "'; do [ $SECONDS -lt $probeUntil ] || { exitCode=1; break; }; sleep 5; done; fi");
+        userData.addSignalOnExitCommand(appAsg);
+    }
+
+    /**
+     * Keeps stopped instances that already ran their user data next to the group, so that scale-outs start them
+     * instead of booting new ones from scratch.
+     */
+    private void createWarmPool(AutoScalingGroup asg, WarmPoolParameters warmPool) {
+
+        asg.addWarmPool(WarmPoolOptions
+                .builder()
+                .poolState(PoolState.STOPPED)
+                .minSize(warmPool.minSize)
+                .maxGroupPreparedCapacity(warmPool.maxPreparedCapacity)
+                .reuseOnScaleIn(warmPool.reuseOnScaleIn)
+                .build());
+    }
+
+    private ApplicationLoadBalancer createAlb(IVpc vpc, ISecurityGroup sg) {
+
+        return ApplicationLoadBalancer
+                .Builder
+                .create(this, "app-alb")
+                .loadBalancerName(appEnv.prefix("app-alb", 32))
                 .vpc(vpc)
                 .vpcSubnets(SubnetSelection.builder().subnetType(SubnetType.PUBLIC).build())
+                .internetFacing(true)
                 .securityGroup(sg)
-                .role(role)
                 .build();
     }
 
-    private SecurityGroup createAppSg(IVpc vpc) {
+    /**
+     * Ramps up the share of requests a newly registered instance gets over the slow start period, if any.
+     */
+    private ApplicationTargetGroup createAppTargetGroup(
+            ApplicationLoadBalancer alb, AutoScalingGroup asg, String healthCheckPath, int slowStartSeconds) {
+
+        ApplicationListener listener = alb.addListener("http-listener", BaseApplicationListenerProps
+                .builder()
+                .port(80)
+                .protocol(ApplicationProtocol.HTTP)
+                .open(false)
+                .build());
+
+        // Registering the ASG as a target also adds the ingress rule from the ALB SG to the app SG.
+        return listener.addTargets("app-targets", AddApplicationTargetsProps
+                .builder()
+                .targetGroupName(appEnv.prefix("app-tg", 32))
+                .port(80)
+                .protocol(ApplicationProtocol.HTTP)
+                .targets(List.of(asg))
+                .healthCheck(software.amazon.awscdk.services.elasticloadbalancingv2.HealthCheck
+                        .builder()
+                        .path(healthCheckPath)
+                        .healthyHttpCodes("200-399")
+                        .interval(Duration.seconds(30))
+                        .build())
+                .deregistrationDelay(Duration.seconds(30))
+                .slowStart(slowStartSeconds > 0 ? Duration.seconds(slowStartSeconds) : null)
+                .build());
+    }
+
+    private void configureScaling(AutoScalingGroup asg, ScalingParameters scaling) {
+
+        asg.scaleOnCpuUtilization("cpu-scaling", CpuUtilizationScalingProps
+                .builder()
+                .targetUtilizationPercent(scaling.cpuTargetUtilization)
+                .build());
+
+        // Request count scaling needs the ASG to be registered in the target group first.
+        asg.scaleOnRequestCount("request-count-scaling", RequestCountScalingProps
+                .builder()
+                .targetRequestsPerMinute(scaling.requestsPerMinutePerTarget)
+                .build());
+
+        for (ScheduledScalingParameters schedule : scaling.schedules) {
+            asg.scaleOnSchedule(schedule.name, BasicScheduledActionProps
+                    .builder()
+                    .schedule(Schedule.expression(schedule.cron))
+                    .timeZone(schedule.timeZone)
+                    .minCapacity(schedule.minCapacity)
+                    .maxCapacity(schedule.maxCapacity)
+                    .desiredCapacity(schedule.desiredCapacity)
+                    .build());
+        }
+
+        if (scaling.predictiveScaling != null) {
+            createPredictiveScalingPolicy(asg, scaling.predictiveScaling, scaling.cpuTargetUtilization);
+        }
+    }
+
+    /**
+     * Forecasts the CPU load from the last two weeks and launches capacity ahead of it, aiming at the same
+     * utilization as the target tracking policy. The L2 ASG has no API for predictive scaling yet.
+     */
+    private CfnScalingPolicy createPredictiveScalingPolicy(
+            AutoScalingGroup asg, PredictiveScalingParameters predictiveScaling, int cpuTargetUtilization) {
+
+        return CfnScalingPolicy.Builder
+                .create(this, "predictive-scaling")
+                .autoScalingGroupName(asg.getAutoScalingGroupName())
+                .policyType("PredictiveScaling")
+                .predictiveScalingConfiguration(CfnScalingPolicy.PredictiveScalingConfigurationProperty
+                        .builder()
+                        .mode(predictiveScaling.forecastOnly ? "ForecastOnly" : "ForecastAndScale")
+                        .schedulingBufferTime(predictiveScaling.schedulingBufferSeconds)
+                        .maxCapacityBreachBehavior(predictiveScaling.maxCapacityBufferPercent != null
+                                                   ? "IncreaseMaxCapacity" : "HonorMaxCapacity")
+                        .maxCapacityBuffer(predictiveScaling.maxCapacityBufferPercent)
+                        .metricSpecifications(List.of(CfnScalingPolicy.PredictiveScalingMetricSpecificationProperty
+                                .builder()
+                                .targetValue(cpuTargetUtilization)
+                                .predefinedMetricPairSpecification(
+                                        CfnScalingPolicy.PredictiveScalingPredefinedMetricPairProperty
+                                                .builder()
+                                                .predefinedMetricType("ASGCPUUtilization")
+                                                .build())
+                                .build()))
+                        .build())
+                .build();
+    }
+
+    private SecurityGroup createAlbSg(IVpc vpc) {
+
+        SecurityGroup sg = SecurityGroup
+                .Builder
+                .create(this, "alb-sg")
+                .securityGroupName(appEnv.prefix("alb-sg"))
+                .vpc(vpc)
+                .allowAllOutbound(true)
+                .build();
+        sg.addIngressRule(Peer.anyIpv4(), Port.tcp(80));
+
+        return sg;
+    }
+
+    private SecurityGroup createAppSg(IVpc vpc, String bhSgId) {
 
         SecurityGroup sg = SecurityGroup
                 .Builder
@@ -60,8 +494,7 @@ public class Service extends Construct {
                 .vpc(vpc)
                 .allowAllOutbound(true)
                 .build();
-        sg.addIngressRule(Peer.anyIpv4(), Port.tcp(80));
-        sg.addIngressRule(Peer.anyIpv4(), Port.tcp(22));
+        sg.addIngressRule(Peer.securityGroupId(bhSgId), Port.tcp(22));
 
         return sg;
     }
@@ -71,7 +504,8 @@ public class Service extends Construct {
         return Role
                 .Builder
                 .create(this, "ec2-app-role")
-                .roleName("EC2ApplicationRole")
+                // IAM is global, so the region keeps the stacks of one environment in several regions apart.
+                .roleName(appEnv.prefix("EC2ApplicationRole-" + Stack.of(this).getRegion()))
                 .assumedBy(ServicePrincipal.Builder.create("ec2.amazonaws.com").build())
                 .managedPolicies(List.of(
                         ManagedPolicy.fromAwsManagedPolicyName("AmazonSSMManagedInstanceCore"),
@@ -95,31 +529,360 @@ public class Service extends Construct {
 
     public ServiceOutputParameters getOutputParameters() {
 
-        return new ServiceOutputParameters(appSg.getSecurityGroupId());
+        return new ServiceOutputParameters(appSg.getSecurityGroupId(), appRole, alb.getLoadBalancerDnsName(), alb,
+                alb.getLoadBalancerFullName(), appAsg.getAutoScalingGroupName());
     }
 
     public static class ServiceInputParameters {
 
-        private final String imageName;
-        private final String keyPairName;
-        private final String s3Arn;
+        private final String                    imageName;
+        private final String                    keyPairName;
+        private final String                    s3Arn;
+        private final String                    bhSgId;
+        private final String                    healthCheckPath;
+        private final InstanceSizing            sizing;
+        private final ScalingParameters         scaling;
+        private final DeploymentParameters      deployment;
+        private final BlockStorageParameters    storage;
+        private final PlacementParameters       placement;
+        private final CloudWatchAgentParameters agent;
+
+        /**
+         * @param bhSgId    the SG of the bastion host, the only source admitted for SSH.
+         * @param placement the placement group of the app instances or <code>null</code> to place them freely.
+         * @param agent     the CloudWatch agent setup or <code>null</code> to leave the agent unconfigured.
+         */
+        public ServiceInputParameters(
+                String imageName, String keyPairName, String s3Arn, String bhSgId, String healthCheckPath,
+                InstanceSizing sizing, ScalingParameters scaling, DeploymentParameters deployment,
+                BlockStorageParameters storage, PlacementParameters placement, CloudWatchAgentParameters agent) {
+
+            // The previous generation burstable family can't be EBS-optimized at all.
+            if (storage.ebsOptimized && sizing.getInstanceType().toString().startsWith("t2.")) {
+                throw new IllegalArgumentException("Instance type " + sizing + " can't be EBS-optimized");
+            }
+
+            // CloudFormation can only roll out if it may launch at least one instance beyond those in service.
+            int minInstancesInService = deployment.getMinInstancesInService(scaling.minCapacity);
+            if (minInstancesInService >= scaling.maxCapacity) {
+                throw new IllegalArgumentException(String.format(
+                        "Keeping %d instances in service leaves no room to roll out below the max capacity of %d",
+                        minInstancesInService, scaling.maxCapacity));
+            }
+
+            this.imageName       = imageName;
+            this.keyPairName     = keyPairName;
+            this.s3Arn           = s3Arn;
+            this.bhSgId          = bhSgId;
+            this.healthCheckPath = healthCheckPath;
+            this.sizing          = sizing;
+            this.scaling         = scaling;
+            this.deployment      = deployment;
+            this.storage         = storage;
+            this.placement       = placement;
+            this.agent           = agent;
+        }
+    }
+
+    public static class CloudWatchAgentParameters {
+
+        private static final List<Integer> COLLECTION_INTERVALS = List.of(1, 5, 10, 30, 60);
+
+        private final int     collectionIntervalSeconds;
+        private final boolean statsd;
+        private final boolean emf;
+        private final Integer jmxPort;
+
+        /**
+         * @param collectionIntervalSeconds how often metrics are collected. Intervals below 60 seconds are stored as
+         *                                  high-resolution metrics.
+         * @param statsd                    whether to receive StatsD metrics from the app.
+         * @param emf                       whether to receive embedded metric format logs from the app.
+         * @param jmxPort                   the local JMX port of the app's JVM or <code>null</code> to skip JVM
+         *                                  metrics.
+         */
+        public CloudWatchAgentParameters(int collectionIntervalSeconds, boolean statsd, boolean emf, Integer jmxPort) {
+
+            if (!COLLECTION_INTERVALS.contains(collectionIntervalSeconds)) {
+                throw new IllegalArgumentException("Metrics collection interval must be any of " + COLLECTION_INTERVALS
+                                                   + ": " + collectionIntervalSeconds);
+            }
+
+            this.collectionIntervalSeconds = collectionIntervalSeconds;
+            this.statsd                    = statsd;
+            this.emf                       = emf;
+            this.jmxPort                   = jmxPort;
+        }
+    }
+
+    public static class BlockStorageParameters {
+
+        private final String    rootDeviceName;
+        private final Gp3Volume rootVolume;
+        private final Gp3Volume dataVolume;
+        private final boolean   ebsOptimized;
+
+        /**
+         * @param rootDeviceName the root device name of the app image, e.g. <code>/dev/xvda</code> for Amazon Linux.
+         *                       Any other name adds a volume instead of replacing the root volume.
+         * @param dataVolume     the volume attached as <code>/dev/sdf</code> or <code>null</code> for none.
+         * @param ebsOptimized   whether to request dedicated EBS bandwidth. Current generation families are
+         *                       optimized anyway.
+         */
+        public BlockStorageParameters(
+                String rootDeviceName, Gp3Volume rootVolume, Gp3Volume dataVolume, boolean ebsOptimized) {
+
+            this.rootDeviceName = rootDeviceName;
+            this.rootVolume     = rootVolume;
+            this.dataVolume     = dataVolume;
+            this.ebsOptimized   = ebsOptimized;
+        }
+    }
+
+    public enum PlacementStrategy {
+
+        /**
+         * Packs the instances close together in one AZ for low latency between them.
+         */
+        CLUSTER,
+
+        /**
+         * Puts every instance on its own rack.
+         */
+        SPREAD,
+
+        /**
+         * Spreads groups of instances over partitions that share no racks.
+         */
+        PARTITION
+    }
+
+    public static class PlacementParameters {
+
+        private final PlacementStrategy strategy;
+        private final Integer           partitionCount;
+
+        /**
+         * @param partitionCount the number of partitions per AZ, only for the partition strategy.
+         */
+        public PlacementParameters(PlacementStrategy strategy, Integer partitionCount) {
+
+            if (strategy == PlacementStrategy.PARTITION
+                ? partitionCount == null || partitionCount < 1 || partitionCount > 7
+                : partitionCount != null) {
+                throw new IllegalArgumentException(String.format(
+                        "Partition count must be between 1 and 7 for the partition strategy only: %s %d",
+                        strategy, partitionCount));
+            }
+
+            this.strategy       = strategy;
+            this.partitionCount = partitionCount;
+        }
+    }
+
+    public static class ScalingParameters {
+
+        private final int                              minCapacity;
+        private final int                              maxCapacity;
+        private final int                              cpuTargetUtilization;
+        private final int                              requestsPerMinutePerTarget;
+        private final List<ScheduledScalingParameters> schedules;
+        private final PredictiveScalingParameters      predictiveScaling;
+
+        /**
+         * @param schedules         the scheduled actions moving the capacity bounds with the daily traffic.
+         * @param predictiveScaling the predictive scaling policy or <code>null</code> to scale reactively only.
+         */
+        public ScalingParameters(
+                int minCapacity, int maxCapacity, int cpuTargetUtilization, int requestsPerMinutePerTarget,
+                List<ScheduledScalingParameters> schedules, PredictiveScalingParameters predictiveScaling) {
+
+            if (minCapacity < 1 || maxCapacity < minCapacity) {
+                throw new IllegalArgumentException(String.format(
+                        "Invalid app capacity bounds: min %d, max %d", minCapacity, maxCapacity));
+            }
+            Set<String> scheduleNames = new HashSet<>();
+            for (ScheduledScalingParameters schedule : schedules) {
+                if (!scheduleNames.add(schedule.name)) {
+                    throw new IllegalArgumentException("Duplicate scaling schedule: " + schedule.name);
+                }
+            }
+
+            this.minCapacity                = minCapacity;
+            this.maxCapacity                = maxCapacity;
+            this.cpuTargetUtilization       = cpuTargetUtilization;
+            this.requestsPerMinutePerTarget = requestsPerMinutePerTarget;
+            this.schedules                  = schedules;
+            this.predictiveScaling          = predictiveScaling;
+        }
+    }
+
+    /**
+     * A scheduled action setting the capacity bounds from the given time on, until the next action fires. Bounds
+     * left <code>null</code> stay as they are.
+     */
+    public static class ScheduledScalingParameters {
+
+        private final String  name;
+        private final String  cron;
+        private final String  timeZone;
+        private final Integer minCapacity;
+        private final Integer maxCapacity;
+        private final Integer desiredCapacity;
+
+        /**
+         * @param cron     a cron expression with five fields, e.g. <code>0 7 * * MON-FRI</code>.
+         * @param timeZone the IANA time zone the expression is evaluated in, UTC if <code>null</code>.
+         */
+        public ScheduledScalingParameters(
+                String name, String cron, String timeZone, Integer minCapacity, Integer maxCapacity,
+                Integer desiredCapacity) {
+
+            if (cron == null || cron.trim().split("\\s+").length != 5) {
+                throw new IllegalArgumentException("Scaling schedule " + name + " needs a cron expression with five "
+                                                   + "fields: " + cron);
+            }
+            if (minCapacity == null && maxCapacity == null && desiredCapacity == null) {
+                throw new IllegalArgumentException("Scaling schedule " + name + " changes no capacity");
+            }
+            if (minCapacity != null && maxCapacity != null && maxCapacity < minCapacity
+                || desiredCapacity != null && minCapacity != null && desiredCapacity < minCapacity
+                || desiredCapacity != null && maxCapacity != null && desiredCapacity > maxCapacity) {
+                throw new IllegalArgumentException(String.format(
+                        "Invalid capacity in scaling schedule %s: min %d, max %d, desired %d",
+                        name, minCapacity, maxCapacity, desiredCapacity));
+            }
+
+            this.name            = name;
+            this.cron            = cron;
+            this.timeZone        = timeZone;
+            this.minCapacity     = minCapacity;
+            this.maxCapacity     = maxCapacity;
+            this.desiredCapacity = desiredCapacity;
+        }
+    }
+
+    public static class DeploymentParameters {
+
+        private final int                minHealthyPercent;
+        private final int                instanceWarmupSeconds;
+        private final int                slowStartSeconds;
+        private final WarmPoolParameters warmPool;
+
+        /**
+         * @param minHealthyPercent     the share of the minimum capacity kept in service during a rollout.
+         * @param instanceWarmupSeconds how long a new instance needs until it serves at full speed. Rollouts wait
+         *                              as long on top of the health check grace period for a new batch to signal.
+         * @param slowStartSeconds      how long the ALB ramps up the requests to a new instance, 0 to send it its
+         *                              full share right away.
+         * @param warmPool              the warm pool or <code>null</code> to launch every instance from scratch.
+         */
+        public DeploymentParameters(
+                int minHealthyPercent, int instanceWarmupSeconds, int slowStartSeconds, WarmPoolParameters warmPool) {
+
+            if (minHealthyPercent < 0 || minHealthyPercent > 100) {
+                throw new IllegalArgumentException(
+                        "Min healthy percent must be between 0 and 100: " + minHealthyPercent);
+            }
+            if (instanceWarmupSeconds < 0 || instanceWarmupSeconds > 3600) {
+                throw new IllegalArgumentException(
+                        "Instance warm-up must be between 0 and 3600 seconds: " + instanceWarmupSeconds);
+            }
+            if (slowStartSeconds != 0 && (slowStartSeconds < 30 || slowStartSeconds > 900)) {
+                throw new IllegalArgumentException(
+                        "Slow start must be 0 or between 30 and 900 seconds: " + slowStartSeconds);
+            }
+
+            this.minHealthyPercent     = minHealthyPercent;
+            this.instanceWarmupSeconds = instanceWarmupSeconds;
+            this.slowStartSeconds      = slowStartSeconds;
+            this.warmPool              = warmPool;
+        }
+
+        private int getMinInstancesInService(int minCapacity) {
+
+            return (int) Math.ceil(minCapacity * minHealthyPercent / 100.0);
+        }
+    }
+
+    public static class WarmPoolParameters {
+
+        private final int     minSize;
+        private final Integer maxPreparedCapacity;
+        private final boolean reuseOnScaleIn;
+
+        /**
+         * @param minSize             the number of stopped instances kept in the pool at least.
+         * @param maxPreparedCapacity the maximum of running and pooled instances, the group's max capacity if
+         *                            <code>null</code>.
+         * @param reuseOnScaleIn      whether scale-ins stop instances back into the pool instead of terminating
+         *                            them.
+         */
+        public WarmPoolParameters(int minSize, Integer maxPreparedCapacity, boolean reuseOnScaleIn) {
+
+            if (minSize < 0 || maxPreparedCapacity != null && maxPreparedCapacity < minSize) {
+                throw new IllegalArgumentException(String.format(
+                        "Invalid warm pool bounds: min %d, max prepared %d", minSize, maxPreparedCapacity));
+            }
+
+            this.minSize             = minSize;
+            this.maxPreparedCapacity = maxPreparedCapacity;
+            this.reuseOnScaleIn      = reuseOnScaleIn;
+        }
+    }
+
+    public static class PredictiveScalingParameters {
+
+        private final boolean forecastOnly;
+        private final int     schedulingBufferSeconds;
+        private final Integer maxCapacityBufferPercent;
+
+        /**
+         * @param forecastOnly             whether to only publish forecasts, e.g. to check them against the actual
+         *                                 load before letting them scale.
+         * @param schedulingBufferSeconds  how long ahead of the forecast load instances are launched, at most an
+         *                                 hour.
+         * @param maxCapacityBufferPercent how far the forecast may raise the maximum capacity, or <code>null</code>
+         *                                 to honor it.
+         */
+        public PredictiveScalingParameters(
+                boolean forecastOnly, int schedulingBufferSeconds, Integer maxCapacityBufferPercent) {
 
-        public ServiceInputParameters(String imageName, String keyPairName, String s3Arn) {
+            if (schedulingBufferSeconds < 0 || schedulingBufferSeconds > 3600) {
+                throw new IllegalArgumentException(
+                        "Scheduling buffer must be between 0 and 3600 seconds: " + schedulingBufferSeconds);
+            }
+            if (maxCapacityBufferPercent != null && (maxCapacityBufferPercent < 0 || maxCapacityBufferPercent > 100)) {
+                throw new IllegalArgumentException(
+                        "Max capacity buffer must be between 0 and 100 percent: " + maxCapacityBufferPercent);
+            }
 
-            this.imageName   = imageName;
-            this.keyPairName = keyPairName;
-            this.s3Arn       = s3Arn;
+            this.forecastOnly             = forecastOnly;
+            this.schedulingBufferSeconds  = schedulingBufferSeconds;
+            this.maxCapacityBufferPercent = maxCapacityBufferPercent;
         }
     }
 
     @Getter
     public static class ServiceOutputParameters {
 
-        private final String appSgId;
+        private final String                   appSgId;
+        private final IRole                    appRole;
+        private final String                   albDnsName;
+        private final IApplicationLoadBalancer alb;
+        private final String                   albFullName;
+        private final String                   asgName;
 
-        public ServiceOutputParameters(String appSgId) {
+        public ServiceOutputParameters(
+                String appSgId, IRole appRole, String albDnsName, IApplicationLoadBalancer alb, String albFullName,
+                String asgName) {
 
-            this.appSgId = appSgId;
+            this.appSgId     = appSgId;
+            this.appRole     = appRole;
+            this.albDnsName  = albDnsName;
+            this.alb         = alb;
+            this.albFullName = albFullName;
+            this.asgName     = asgName;
         }
     }
 }
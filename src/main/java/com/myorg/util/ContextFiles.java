@@ -0,0 +1,56 @@
+package com.myorg.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads the context the CDK CLI would pass to the app, so that the app can be synthesized without the CLI, e.g. in
+ * benchmarks and tests.
+ */
+public final class ContextFiles {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private ContextFiles() {
+    }
+
+    /**
+     * Merges the <code>context</code> object of cdk.json with the cached lookups of cdk.context.json, the latter
+     * taking precedence like in the CLI.
+     *
+     * @param projectDir the directory containing cdk.json.
+     * @return the context to create the <code>App</code> with. Lookups missing from cdk.context.json resolve to
+     * dummy values at synth time instead of calling AWS.
+     */
+    public static Map<String, Object> load(File projectDir) {
+
+        Map<String, Object> context = new LinkedHashMap<>();
+        Object cdkJsonContext = read(new File(projectDir, "cdk.json")).get("context");
+        if (cdkJsonContext instanceof Map) {
+            ((Map<?, ?>) cdkJsonContext).forEach((key, value) -> context.put(key.toString(), value));
+        }
+        context.putAll(read(new File(projectDir, "cdk.context.json")));
+
+        return context;
+    }
+
+    private static Map<String, Object> read(File file) {
+
+        if (!file.isFile()) {
+            return Collections.emptyMap();
+        }
+        try {
+            return OBJECT_MAPPER.readValue(file, new TypeReference<Map<String, Object>>() {
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + file, e);
+        }
+    }
+}
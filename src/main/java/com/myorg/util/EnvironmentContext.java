@@ -0,0 +1,123 @@
+package com.myorg.util;
+
+import software.constructs.Node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class EnvironmentContext {
+
+    private final Map<String, Object> values;
+
+    private EnvironmentContext(Map<String, Object> values) {
+        this.values = values;
+    }
+
+    /**
+     * Reads the settings of an environment from the <code>environments</code> context object in cdk.json.
+     *
+     * @param node            the node to read the context from.
+     * @param environmentName the name of the environment whose settings shall be read.
+     * @return the settings of the environment. Unknown environments yield an empty context, so every lookup
+     * falls back to its default value.
+     */
+    public static EnvironmentContext of(Node node, String environmentName) {
+        Map<String, Object> environments = asMap(node.tryGetContext("environments"));
+        return new EnvironmentContext(asMap(environments.get(environmentName)));
+    }
+
+    /**
+     * Returns the nested settings object stored under the given key, e.g. the <code>service</code> section.
+     */
+    public EnvironmentContext section(String key) {
+        return new EnvironmentContext(asMap(values.get(key)));
+    }
+
+    /**
+     * Returns the list of settings objects stored under the given key, e.g. scheduled scaling actions. Missing
+     * keys yield an empty list.
+     */
+    public List<EnvironmentContext> sections(String key) {
+        Object value = values.get(key);
+        if (!(value instanceof List)) {
+            return Collections.emptyList();
+        }
+        List<EnvironmentContext> result = new ArrayList<>();
+        ((List<?>) value).forEach(item -> result.add(new EnvironmentContext(asMap(item))));
+        return result;
+    }
+
+    public boolean has(String key) {
+        return values.get(key) != null;
+    }
+
+    public String getString(String key, String defaultValue) {
+        Object value = values.get(key);
+        return value != null ? value.toString() : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        Integer value = getInteger(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Returns the integer stored under the given key or <code>null</code> if the key is not set.
+     */
+    public Integer getInteger(String key) {
+        Object value = values.get(key);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return Integer.parseInt(value.toString());
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        Object value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return Double.parseDouble(value.toString());
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        Object value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return Boolean.parseBoolean(value.toString());
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<String> getStringList(String key, List<String> defaultValue) {
+        Object value = values.get(key);
+        return value instanceof List ? (List<String>) value : defaultValue;
+    }
+
+    /**
+     * Returns the object stored under the given key as a map of strings, e.g. for engine parameters. Missing keys
+     * yield an empty map.
+     */
+    public Map<String, String> getStringMap(String key) {
+        Map<String, String> result = new LinkedHashMap<>();
+        asMap(values.get(key)).forEach((name, value) -> result.put(name, value.toString()));
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : Collections.emptyMap();
+    }
+}
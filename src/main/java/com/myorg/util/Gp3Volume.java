@@ -0,0 +1,76 @@
+package com.myorg.util;
+
+import software.amazon.awscdk.services.ec2.BlockDevice;
+import software.amazon.awscdk.services.ec2.BlockDeviceVolume;
+import software.amazon.awscdk.services.ec2.EbsDeviceOptions;
+import software.amazon.awscdk.services.ec2.EbsDeviceVolumeType;
+
+public class Gp3Volume {
+
+    private static final int BASELINE_IOPS       = 3000;
+    private static final int BASELINE_THROUGHPUT = 125;
+
+    private final int     sizeGib;
+    private final Integer iops;
+    private final Integer throughputMibps;
+
+    /**
+     * Constructor. The volume is always encrypted and deleted with its instance.
+     *
+     * @param sizeGib         the volume size.
+     * @param iops            the provisioned IOPS or <code>null</code> for the gp3 baseline of 3000.
+     * @param throughputMibps the provisioned throughput or <code>null</code> for the gp3 baseline of 125 MiB/s.
+     */
+    public Gp3Volume(int sizeGib, Integer iops, Integer throughputMibps) {
+
+        if (sizeGib < 1 || sizeGib > 16384) {
+            throw new IllegalArgumentException("gp3 volume size must be between 1 and 16384 GiB: " + sizeGib);
+        }
+        if (iops != null && (iops < BASELINE_IOPS || iops > 16000 || iops > sizeGib * 500)) {
+            throw new IllegalArgumentException(String.format(
+                    "gp3 IOPS must be between 3000 and 16000, and at most 500 per GiB: %d IOPS on %d GiB",
+                    iops, sizeGib));
+        }
+        int effectiveIops = iops != null ? iops : BASELINE_IOPS;
+        if (throughputMibps != null && (throughputMibps < BASELINE_THROUGHPUT || throughputMibps > 1000
+                                        || throughputMibps > effectiveIops / 4)) {
+            throw new IllegalArgumentException(String.format(
+                    "gp3 throughput must be between 125 and 1000 MiB/s, and at most IOPS / 4: %d MiB/s at %d IOPS",
+                    throughputMibps, effectiveIops));
+        }
+
+        this.sizeGib         = sizeGib;
+        this.iops            = iops;
+        this.throughputMibps = throughputMibps;
+    }
+
+    /**
+     * Returns the block device mapping of the volume. It doesn't carry the throughput, which the L2 constructs
+     * can't set yet, see {@link #getThroughputMibps()}.
+     */
+    public BlockDevice toBlockDevice(String deviceName) {
+
+        return BlockDevice.builder()
+                          .deviceName(deviceName)
+                          .volume(BlockDeviceVolume.ebs(sizeGib, EbsDeviceOptions
+                                  .builder()
+                                  .volumeType(EbsDeviceVolumeType.GP3)
+                                  .iops(iops)
+                                  .encrypted(true)
+                                  .deleteOnTermination(true)
+                                  .build()))
+                          .build();
+    }
+
+    /**
+     * Returns the provisioned throughput or <code>null</code> if the baseline applies.
+     */
+    public Integer getThroughputMibps() {
+        return throughputMibps;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("gp3 %d GiB", sizeGib);
+    }
+}
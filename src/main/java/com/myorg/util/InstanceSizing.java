@@ -0,0 +1,85 @@
+package com.myorg.util;
+
+import software.amazon.awscdk.services.ec2.CpuCredits;
+import software.amazon.awscdk.services.ec2.InstanceArchitecture;
+import software.amazon.awscdk.services.ec2.InstanceType;
+
+import java.util.Map;
+
+public class InstanceSizing {
+
+    /**
+     * Graviton (ARM) counterparts of the x86 instance families we run on.
+     */
+    private static final Map<String, String> GRAVITON_FAMILIES = Map.of(
+            "t2", "t4g",
+            "t3", "t4g",
+            "t3a", "t4g",
+            "m5", "m6g",
+            "m6i", "m6g",
+            "c5", "c6g",
+            "c6i", "c6g",
+            "r5", "r6g",
+            "r6i", "r6g");
+
+    private final InstanceType instanceType;
+    private final CpuCredits   cpuCredits;
+
+    /**
+     * Constructor.
+     *
+     * @param instanceFamily the instance family, e.g. <code>t3</code> or <code>m6i</code>.
+     * @param instanceSize   the instance size, e.g. <code>micro</code> or <code>large</code>.
+     * @param graviton       whether to run on the Graviton (ARM) variant of the family.
+     * @param cpuCredits     the credit mode of burstable instances or <code>null</code> for the family's default.
+     */
+    public InstanceSizing(String instanceFamily, String instanceSize, boolean graviton, CpuCredits cpuCredits) {
+
+        String family = graviton ? toGraviton(instanceFamily) : instanceFamily;
+        if (cpuCredits != null && !family.startsWith("t")) {
+            throw new IllegalArgumentException("CPU credit mode only applies to burstable instances: " + family);
+        }
+
+        this.instanceType = new InstanceType(family + "." + instanceSize);
+        this.cpuCredits   = cpuCredits;
+    }
+
+    private static String toGraviton(String instanceFamily) {
+
+        if (GRAVITON_FAMILIES.containsValue(instanceFamily)) {
+            return instanceFamily;
+        }
+        String gravitonFamily = GRAVITON_FAMILIES.get(instanceFamily);
+        if (gravitonFamily == null) {
+            throw new IllegalArgumentException("No Graviton variant known for instance family " + instanceFamily);
+        }
+        return gravitonFamily;
+    }
+
+    public InstanceType getInstanceType() {
+        return instanceType;
+    }
+
+    /**
+     * Returns the credit mode of burstable instances or <code>null</code> if the family's default applies.
+     */
+    public CpuCredits getCpuCredits() {
+        return cpuCredits;
+    }
+
+    /**
+     * Returns whether the instances are burstable (t family) and run on a baseline share of a physical core.
+     */
+    public boolean isBurstable() {
+        return instanceType.toString().startsWith("t");
+    }
+
+    public boolean isArm() {
+        return instanceType.getArchitecture() == InstanceArchitecture.ARM_64;
+    }
+
+    @Override
+    public String toString() {
+        return instanceType.toString();
+    }
+}
@@ -0,0 +1,244 @@
+package com.myorg.util;
+
+import software.amazon.awscdk.Annotations;
+import software.amazon.awscdk.IAspect;
+import software.amazon.awscdk.services.autoscaling.CfnAutoScalingGroup;
+import software.amazon.awscdk.services.cloudwatch.CfnAlarm;
+import software.amazon.awscdk.services.ec2.CfnInstance;
+import software.amazon.awscdk.services.ec2.CfnLaunchTemplate;
+import software.amazon.awscdk.services.ec2.CfnNatGateway;
+import software.amazon.awscdk.services.ec2.CfnSubnet;
+import software.amazon.awscdk.services.rds.CfnDBCluster;
+import software.amazon.awscdk.services.rds.CfnDBInstance;
+import software.constructs.IConstruct;
+import software.constructs.IValidation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks the resources of a stack against the performance policy of its environment once the tree is complete.
+ * Violations are reported on the offending construct as errors or warnings, and every synth reports a summary of
+ * the provisioned capacity on the stack.
+ * <p>
+ * Register it as aspect and validation of the stack: the aspect collects, the validation runs after all aspects
+ * and checks what can only be judged on the whole stack.
+ * <p>
+ * Instance classes and scaling headroom are only checked for the app and the database, which serve the users.
+ * Other fleets, like a load generator, and standalone instances, like the bastion host, are sized for their own
+ * job and only show up in the summary.
+ */
+public class PerformanceBudget implements IAspect, IValidation {
+
+    private final IConstruct scope;
+    private final IConstruct app;
+    private final Policy     policy;
+
+    private final Set<String>        availabilityZones = new LinkedHashSet<>();
+    private final List<String>       appCapacity       = new ArrayList<>();
+    private final List<String>       fleetCapacity     = new ArrayList<>();
+    private final List<String>       instanceCapacity  = new ArrayList<>();
+    private final List<String>       databaseCapacity  = new ArrayList<>();
+    private final List<CfnDBCluster> dbClusters        = new ArrayList<>();
+
+    private int clusterInstanceCount;
+    private int natGatewayCount;
+    private int alarmCount;
+
+    /**
+     * @param scope  the stack whose summary is reported.
+     * @param app    the construct holding the app's launch template and autoscaling group.
+     * @param policy the policy of the stack's environment.
+     */
+    public PerformanceBudget(IConstruct scope, IConstruct app, Policy policy) {
+
+        this.scope  = scope;
+        this.app    = app;
+        this.policy = policy;
+    }
+
+    @Override
+    public void visit(IConstruct node) {
+
+        if (node instanceof CfnLaunchTemplate) {
+            visitLaunchTemplate((CfnLaunchTemplate) node, isApp(node) ? appCapacity : fleetCapacity);
+        } else if (node instanceof CfnAutoScalingGroup) {
+            visitAutoScalingGroup((CfnAutoScalingGroup) node, isApp(node) ? appCapacity : fleetCapacity);
+        } else if (node instanceof CfnInstance) {
+            instanceCapacity.add(((CfnInstance) node).getInstanceType());
+        } else if (node instanceof CfnDBInstance) {
+            visitDbInstance((CfnDBInstance) node);
+        } else if (node instanceof CfnDBCluster) {
+            dbClusters.add((CfnDBCluster) node);
+        } else if (node instanceof CfnSubnet) {
+            availabilityZones.add(((CfnSubnet) node).getAvailabilityZone());
+        } else if (node instanceof CfnNatGateway) {
+            natGatewayCount++;
+        } else if (node instanceof CfnAlarm) {
+            alarmCount++;
+        }
+    }
+
+    private boolean isApp(IConstruct node) {
+
+        return node.getNode().getScopes().contains(app);
+    }
+
+    private void visitLaunchTemplate(CfnLaunchTemplate launchTemplate, List<String> capacity) {
+
+        Object data = launchTemplate.getLaunchTemplateData();
+        if (!(data instanceof CfnLaunchTemplate.LaunchTemplateDataProperty)) {
+            return;
+        }
+        String instanceType = ((CfnLaunchTemplate.LaunchTemplateDataProperty) data).getInstanceType();
+        if (instanceType != null) {
+            capacity.add(instanceType);
+            if (capacity == appCapacity) {
+                checkInstanceClass(launchTemplate, instanceType);
+            }
+        }
+    }
+
+    private void visitAutoScalingGroup(CfnAutoScalingGroup asg, List<String> capacity) {
+
+        int minCapacity = Integer.parseInt(asg.getMinSize());
+        int maxCapacity = Integer.parseInt(asg.getMaxSize());
+        capacity.add(minCapacity + "-" + maxCapacity + " instances");
+
+        if (capacity == appCapacity && maxCapacity < minCapacity * policy.minScalingHeadroom) {
+            report(asg, String.format("Autoscaling is capped at %d instances, less than %.1f times the minimum of %d",
+                    maxCapacity, policy.minScalingHeadroom, minCapacity));
+        }
+    }
+
+    private void visitDbInstance(CfnDBInstance dbInstance) {
+
+        String  instanceClass = dbInstance.getDbInstanceClass();
+        boolean replica       = dbInstance.getSourceDbInstanceIdentifier() != null;
+        boolean inCluster     = dbInstance.getDbClusterIdentifier() != null;
+        boolean multiAz       = Boolean.TRUE.equals(dbInstance.getMultiAz());
+
+        databaseCapacity.add(instanceClass + (replica ? " replica" : "") + (multiAz ? " Multi-AZ" : "")
+                             + (dbInstance.getStorageType() != null ? " " + dbInstance.getStorageType() : ""));
+        if (inCluster) {
+            clusterInstanceCount++;
+        }
+
+        // Serverless v2 scales within its capacity bounds instead of running on a class.
+        if (!"db.serverless".equals(instanceClass)) {
+            checkInstanceClass(dbInstance, instanceClass.substring("db.".length()));
+        }
+        if (dbInstance.getStorageType() != null && !policy.allowedStorageTypes.isEmpty()
+            && !policy.allowedStorageTypes.contains(dbInstance.getStorageType())) {
+            report(dbInstance, "Storage type " + dbInstance.getStorageType() + " is not one of "
+                               + policy.allowedStorageTypes);
+        }
+        if (policy.requireMultiAz && !replica && !inCluster && !multiAz) {
+            report(dbInstance, "Database instance runs in a single AZ");
+        }
+        if (policy.requireDatabaseInsights) {
+            Number monitoringInterval = dbInstance.getMonitoringInterval();
+            if (!Boolean.TRUE.equals(dbInstance.getEnablePerformanceInsights())
+                || monitoringInterval == null || monitoringInterval.intValue() == 0) {
+                report(dbInstance, "Database instance runs without Performance Insights or enhanced monitoring");
+            }
+        }
+    }
+
+    private void checkInstanceClass(IConstruct construct, String instanceType) {
+
+        String family = instanceType.substring(0, instanceType.indexOf('.'));
+        String size   = instanceType.substring(instanceType.indexOf('.') + 1);
+
+        if (!policy.allowBurstable && family.startsWith("t")) {
+            report(construct, "Burstable instance type " + instanceType + " is not allowed");
+        }
+        if (policy.disallowedSizes.contains(size)) {
+            report(construct, "Instance size " + size + " of " + instanceType + " is not allowed");
+        }
+    }
+
+    /**
+     * Runs after all aspects, i.e. once every resource of the stack was visited.
+     */
+    @Override
+    public List<String> validate() {
+
+        if (availabilityZones.size() < policy.minAvailabilityZones) {
+            report(scope, String.format("The VPC spans %d AZs, at least %d are required",
+                    availabilityZones.size(), policy.minAvailabilityZones));
+        }
+        // Aurora keeps its storage in three AZs anyway, but fails over only to a reader.
+        if (policy.requireMultiAz && !dbClusters.isEmpty() && clusterInstanceCount < 2) {
+            report(dbClusters.get(0), "Aurora cluster has no reader to fail over to");
+        }
+        if (policy.requireAlarms && alarmCount == 0) {
+            report(scope, "The stack defines no alarms");
+        }
+
+        Annotations.of(scope).addInfo(String.format(
+                "Capacity: app %s; fleets %s; instances %s; database %s; %d AZs, %d NAT gateways, %d alarms",
+                appCapacity, fleetCapacity, instanceCapacity, databaseCapacity, availabilityZones.size(),
+                natGatewayCount, alarmCount));
+
+        // Violations are reported as annotations, which fail the synth at error level.
+        return List.of();
+    }
+
+    private void report(IConstruct construct, String message) {
+
+        if (policy.errors) {
+            Annotations.of(construct).addError(message);
+        } else {
+            Annotations.of(construct).addWarning(message);
+        }
+    }
+
+    public static class Policy {
+
+        private final boolean      errors;
+        private final boolean      allowBurstable;
+        private final List<String> disallowedSizes;
+        private final List<String> allowedStorageTypes;
+        private final boolean      requireMultiAz;
+        private final int          minAvailabilityZones;
+        private final double       minScalingHeadroom;
+        private final boolean      requireDatabaseInsights;
+        private final boolean      requireAlarms;
+
+        /**
+         * @param errors                  whether violations fail the synth or are only reported as warnings.
+         * @param allowBurstable          whether app and database instances may run on burstable (t) families.
+         * @param disallowedSizes         the instance sizes app and database instances must not run on, e.g.
+         *                                <code>micro</code>.
+         * @param allowedStorageTypes     the database storage types allowed, any if empty.
+         * @param requireMultiAz          whether the database must survive the loss of an AZ.
+         * @param minAvailabilityZones    the minimum number of AZs the VPC has to span.
+         * @param minScalingHeadroom      the minimum ratio of the maximum to the minimum app capacity.
+         * @param requireDatabaseInsights whether database instances need Performance Insights and enhanced
+         *                                monitoring.
+         * @param requireAlarms           whether the stack needs to define alarms.
+         */
+        public Policy(
+                boolean errors, boolean allowBurstable, List<String> disallowedSizes, List<String> allowedStorageTypes,
+                boolean requireMultiAz, int minAvailabilityZones, double minScalingHeadroom,
+                boolean requireDatabaseInsights, boolean requireAlarms) {
+
+            if (minScalingHeadroom < 1) {
+                throw new IllegalArgumentException("Scaling headroom must be at least 1: " + minScalingHeadroom);
+            }
+
+            this.errors                  = errors;
+            this.allowBurstable          = allowBurstable;
+            this.disallowedSizes         = disallowedSizes;
+            this.allowedStorageTypes     = allowedStorageTypes;
+            this.requireMultiAz          = requireMultiAz;
+            this.minAvailabilityZones    = minAvailabilityZones;
+            this.minScalingHeadroom      = minScalingHeadroom;
+            this.requireDatabaseInsights = requireDatabaseInsights;
+            this.requireAlarms           = requireAlarms;
+        }
+    }
+}
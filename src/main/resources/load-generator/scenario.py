@@ -0,0 +1,124 @@
+#!/usr/bin/env python3
+"""Sends a paced HTTP scenario against the app and publishes latency percentiles and throughput to CloudWatch.
+
+Only uses the standard library and the AWS CLI, both of which ship with Amazon Linux 2.
+"""
+import argparse
+import json
+import random
+import subprocess
+import threading
+import time
+import urllib.error
+import urllib.request
+
+REPORT_INTERVAL_SECONDS = 60
+
+
+class Recorder:
+    """Collects the outcome of requests until the next report."""
+
+    def __init__(self):
+        self.lock = threading.Lock()
+        self.latencies = []
+        self.errors = 0
+
+    def record(self, latency_ms, ok):
+        with self.lock:
+            self.latencies.append(latency_ms)
+            if not ok:
+                self.errors += 1
+
+    def drain(self):
+        with self.lock:
+            latencies, errors = self.latencies, self.errors
+            self.latencies, self.errors = [], 0
+        return sorted(latencies), errors
+
+
+def percentile(sorted_values, p):
+    index = min(len(sorted_values) - 1, int(round(p / 100.0 * (len(sorted_values) - 1))))
+    return sorted_values[index]
+
+
+def parse_paths(values):
+    """Parses weighted paths like /api/items:20 into (path, weight) pairs."""
+    paths = []
+    for value in values:
+        path, _, weight = value.rpartition(':') if ':' in value else (value, None, '1')
+        paths.append((path, int(weight)))
+    return paths
+
+
+def worker(base_url, paths, interval, deadline, timeout, recorder):
+    weights = [weight for _, weight in paths]
+    next_send = time.monotonic()
+    while next_send < deadline:
+        path = random.choices(paths, weights)[0][0]
+        start = time.monotonic()
+        ok = True
+        try:
+            with urllib.request.urlopen(base_url + path, timeout=timeout) as response:
+                response.read()
+                ok = response.status < 500
+        except urllib.error.HTTPError as e:
+            ok = e.code < 500
+        except Exception:
+            ok = False
+        recorder.record((time.monotonic() - start) * 1000, ok)
+
+        # Paced by schedule rather than by response, so that a slow app doesn't slow the load down.
+        next_send += interval
+        time.sleep(max(0.0, next_send - time.monotonic()))
+
+
+def publish(namespace, dimensions, latencies, errors, period):
+    metric_data = [
+        {'MetricName': 'Requests', 'Dimensions': dimensions, 'Value': len(latencies), 'Unit': 'Count'},
+        {'MetricName': 'Throughput', 'Dimensions': dimensions, 'Value': len(latencies) / period,
+         'Unit': 'Count/Second'},
+        {'MetricName': 'Errors', 'Dimensions': dimensions, 'Value': errors, 'Unit': 'Count'},
+    ]
+    if latencies:
+        for p in (50, 90, 99):
+            metric_data.append({'MetricName': 'LatencyP%d' % p, 'Dimensions': dimensions,
+                                'Value': percentile(latencies, p), 'Unit': 'Milliseconds'})
+    subprocess.run(['aws', 'cloudwatch', 'put-metric-data', '--namespace', namespace,
+                    '--metric-data', json.dumps(metric_data)], check=False)
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__)
+    parser.add_argument('--url', required=True, help='base URL of the app, e.g. http://my-alb')
+    parser.add_argument('--path', action='append', default=[],
+                        help='path to request with an optional weight, e.g. /api/items:20; repeatable')
+    parser.add_argument('--requests-per-second', type=float, required=True)
+    parser.add_argument('--concurrency', type=int, default=16)
+    parser.add_argument('--duration-seconds', type=int, required=True)
+    parser.add_argument('--timeout-seconds', type=float, default=10)
+    parser.add_argument('--namespace', required=True)
+    parser.add_argument('--dimension', action='append', default=[], help='Name=Value; repeatable')
+    args = parser.parse_args()
+
+    paths = parse_paths(args.path or ['/'])
+    dimensions = [dict(zip(('Name', 'Value'), d.split('=', 1))) for d in args.dimension]
+    deadline = time.monotonic() + args.duration_seconds
+    interval = args.concurrency / args.requests_per_second
+    recorder = Recorder()
+
+    workers = [threading.Thread(target=worker, daemon=True,
+                                args=(args.url.rstrip('/'), paths, interval, deadline, args.timeout_seconds, recorder))
+               for _ in range(args.concurrency)]
+    for thread in workers:
+        thread.start()
+
+    while any(thread.is_alive() for thread in workers):
+        started = time.monotonic()
+        for thread in workers:
+            thread.join(max(0.0, started + REPORT_INTERVAL_SECONDS - time.monotonic()))
+        latencies, errors = recorder.drain()
+        publish(args.namespace, dimensions, latencies, errors, max(1.0, time.monotonic() - started))
+
+
+if __name__ == '__main__':
+    main()
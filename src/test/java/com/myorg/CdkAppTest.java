@@ -1,26 +1,144 @@
-// package com.myorg;
+package com.myorg;
 
-// import software.amazon.awscdk.App;
-// import software.amazon.awscdk.assertions.Template;
-// import java.io.IOException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.amazon.awscdk.assertions.Match;
+import software.amazon.awscdk.assertions.Template;
 
-// import java.util.HashMap;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
-// import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
 
-// example test. To run these tests, uncomment this file, along with the
-// example resource in java/src/main/java/com/myorg/CdkAppStack.java
-// public class CdkAppTest {
+public class CdkAppTest {
 
-//     @Test
-//     public void testStack() throws IOException {
-//         App app = new App();
-//         CdkAppStack stack = new CdkAppStack(app, "test");
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
-//         Template template = Template.fromStack(stack);
+    private static final File SNAPSHOT_DIR = new File("src/test/resources/snapshots");
 
-//         template.hasResourceProperties("AWS::SQS::Queue", new HashMap<String, Number>() {{
-//           put("VisibilityTimeout", 300);
-//         }});
-//     }
-// }
+    /**
+     * Compares the whole template with the committed snapshot, so that capacity changes show up in review. Run
+     * with <code>-Dsnapshot.update=true</code> to rewrite the snapshots after an intended change. A missing
+     * snapshot is written and the test reported as skipped rather than passed, as there was nothing to compare
+     * with; commit the written file to start comparing.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"dev", "prod"})
+    public void templateMatchesSnapshot(String envName) throws IOException {
+
+        JsonNode template = OBJECT_MAPPER.valueToTree(
+                Template.fromStack(TestStacks.newCdkAppStack(envName)).toJSON());
+        File snapshot = new File(SNAPSHOT_DIR, envName + ".template.json");
+
+        boolean missing = !snapshot.isFile();
+        if (missing || Boolean.getBoolean("snapshot.update")) {
+            SNAPSHOT_DIR.mkdirs();
+            OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(snapshot, template);
+            assumeFalse(missing, "Wrote the missing snapshot " + snapshot + ", commit it to compare against it");
+            return;
+        }
+
+        assertEquals(OBJECT_MAPPER.readTree(snapshot), template,
+                "Template differs from " + snapshot + ", run with -Dsnapshot.update=true if the change is intended");
+    }
+
+    @Test
+    public void devRunsOnSmallSingleAzCapacity() {
+
+        Template template = Template.fromStack(TestStacks.newCdkAppStack("dev"));
+
+        template.resourceCountIs("AWS::EC2::NatGateway", 1);
+        template.hasResourceProperties("AWS::AutoScaling::AutoScalingGroup", Map.of(
+                "MinSize", "1",
+                "MaxSize", "2"));
+        template.hasResourceProperties("AWS::RDS::DBInstance", Map.of(
+                "DBInstanceClass", "db.t3.micro",
+                "MultiAZ", false,
+                "AvailabilityZone", "eu-central-1a",
+                "StorageType", "gp3"));
+        template.resourceCountIs("AWS::ElastiCache::ReplicationGroup", 0);
+        template.resourceCountIs("AWS::CloudFront::Distribution", 0);
+        // The app reads from the bucket of its own environment, not the global prod one.
+        template.hasResourceProperties("AWS::IAM::Role", Map.of(
+                "Policies", List.of(Match.objectLike(Map.of(
+                        "PolicyDocument", Match.objectLike(Map.of("Statement", List.of(Match.objectLike(Map.of(
+                                "Resource", "arn:aws:s3:::dev-module5-app-bucket/*"))))))))));
+    }
+
+    @Test
+    public void prodRunsHighlyAvailable() {
+
+        Template template = Template.fromStack(TestStacks.newCdkAppStack("prod"));
+
+        template.resourceCountIs("AWS::EC2::NatGateway", 3);
+        template.hasResourceProperties("AWS::EC2::LaunchTemplate", Map.of(
+                "LaunchTemplateData", Match.objectLike(Map.of(
+                        "InstanceType", "t3.small",
+                        "CreditSpecification", Map.of("CpuCredits", "unlimited")))));
+        template.hasResourceProperties("AWS::AutoScaling::AutoScalingGroup", Map.of(
+                "MinSize", "2",
+                "MaxSize", "6",
+                "HealthCheckType", "ELB"));
+        template.hasResourceProperties("AWS::EC2::Instance", Map.of(
+                "InstanceType", "t4g.micro",
+                "AvailabilityZone", "eu-central-1a",
+                "CreditSpecification", Map.of("CPUCredits", "standard")));
+        template.hasResourceProperties("AWS::RDS::DBInstance", Map.of(
+                "DBInstanceClass", "db.t4g.medium",
+                "MultiAZ", true,
+                "StorageType", "gp3",
+                "MaxAllocatedStorage", 200,
+                "EnablePerformanceInsights", true,
+                "MonitoringInterval", 15));
+        template.resourceCountIs("AWS::RDS::DBInstance", 2);
+        template.resourceCountIs("AWS::RDS::DBProxy", 1);
+        template.hasResourceProperties("AWS::IAM::Policy", Map.of(
+                "PolicyDocument", Map.of("Statement", Match.arrayWith(List.of(Match.objectLike(Map.of(
+                        "Action", "rds-db:connect"))))),
+                "Roles", Match.anyValue()));
+        template.hasResourceProperties("AWS::EC2::LaunchTemplate", Map.of(
+                "LaunchTemplateData", Match.objectLike(Map.of(
+                        "UserData", Map.of("Fn::Base64", Map.of("Fn::Join", List.of("", Match.arrayWith(List.of(
+                                Match.stringLikeRegexp(
+                                        "[\\s\\S]*DB_WRITER_IAM_AUTH=true\nDB_READER_IAM_AUTH=false[\\s\\S]*"))))))))));
+        template.hasResourceProperties("AWS::ElastiCache::ReplicationGroup", Map.of(
+                "CacheNodeType", "cache.t4g.small",
+                "PreferredCacheClusterAZs", List.of("eu-central-1a", "eu-central-1b")));
+        template.resourceCountIs("AWS::CloudFront::Distribution", 1);
+    }
+
+    @Test
+    public void devRunsTheLoadGeneratorWhenEnabled() {
+
+        Template template = Template.fromStack(TestStacks.newCdkAppStack("dev", "loadGenerator.enabled", true));
+
+        template.resourceCountIs("AWS::AutoScaling::AutoScalingGroup", 2);
+        template.hasResourceProperties("AWS::IAM::Role", Map.of(
+                "Policies", List.of(Match.objectLike(Map.of("PolicyName", "dev-module5-putMetricDataPolicy")))));
+    }
+
+    @Test
+    public void prodRefusesTheLoadGenerator() {
+
+        assertThrows(IllegalArgumentException.class,
+                () -> TestStacks.newCdkAppStack("prod", "loadGenerator.enabled", true));
+    }
+
+    @Test
+    public void refusesTheLoadGeneratorUnlessTheEnvironmentOptsIn() {
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("loadGenerator.enabled", true);
+        settings.put("loadGenerator.allowed", null);
+
+        assertThrows(IllegalArgumentException.class, () -> TestStacks.newCdkAppStack("dev", settings));
+    }
+}
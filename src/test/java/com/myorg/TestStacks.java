@@ -0,0 +1,102 @@
+package com.myorg;
+
+import com.myorg.util.ContextFiles;
+import software.amazon.awscdk.App;
+import software.amazon.awscdk.AppProps;
+import software.amazon.awscdk.Environment;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.StackProps;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates apps and stacks that synthesize offline, from the context in cdk.json and cdk.context.json.
+ */
+public final class TestStacks {
+
+    /**
+     * The account and region the lookups in cdk.context.json were cached for.
+     */
+    public static final Environment ENVIRONMENT = Environment.builder()
+                                                             .account("587499190148")
+                                                             .region("eu-central-1")
+                                                             .build();
+
+    public static final List<String> AVAILABILITY_ZONES = List.of("eu-central-1a", "eu-central-1b", "eu-central-1c");
+
+    private TestStacks() {
+    }
+
+    public static App newApp() {
+
+        return newApp(ContextFiles.load(new File(".")));
+    }
+
+    private static App newApp(Map<String, Object> fileContext) {
+
+        Map<String, Object> context = new HashMap<>(fileContext);
+        // Without it the stack's AZs are dummies and the VPC can't check the configured AZs against them.
+        context.put("availability-zones:account=" + ENVIRONMENT.getAccount() + ":region=" + ENVIRONMENT.getRegion(),
+                AVAILABILITY_ZONES);
+
+        return new App(AppProps.builder().context(context).analyticsReporting(false).build());
+    }
+
+    /**
+     * An empty stack to add single constructs to.
+     */
+    public static Stack newStack() {
+
+        return new Stack(newApp(), "test", StackProps.builder().env(ENVIRONMENT).build());
+    }
+
+    public static CdkAppStack newCdkAppStack(String envName) {
+
+        return new CdkAppStack(newApp(), "appStack", envName, StackProps.builder().env(ENVIRONMENT).build());
+    }
+
+    /**
+     * Like {@link #newCdkAppStack(String)}, with one setting of the environment changed.
+     *
+     * @param setting the dotted path of the setting in the environment's section, e.g.
+     *                <code>loadGenerator.enabled</code>.
+     */
+    public static CdkAppStack newCdkAppStack(String envName, String setting, Object value) {
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put(setting, value);
+        return newCdkAppStack(envName, settings);
+    }
+
+    /**
+     * Like {@link #newCdkAppStack(String)}, with settings of the environment changed.
+     *
+     * @param settings the new values by the dotted path of the setting in the environment's section. A
+     *                 <code>null</code> value removes the setting.
+     */
+    @SuppressWarnings("unchecked")
+    public static CdkAppStack newCdkAppStack(String envName, Map<String, Object> settings) {
+
+        Map<String, Object> context = ContextFiles.load(new File("."));
+        Map<String, Object> environment = (Map<String, Object>) ((Map<String, Object>) context.get("environments"))
+                .get(envName);
+        settings.forEach((setting, value) -> {
+            Map<String, Object> section = environment;
+            String[] keys = setting.split("\\.");
+            for (int i = 0; i < keys.length - 1; i++) {
+                section = (Map<String, Object>) section.computeIfAbsent(keys[i], key -> new LinkedHashMap<>());
+            }
+            if (value == null) {
+                section.remove(keys[keys.length - 1]);
+            } else {
+                section.put(keys[keys.length - 1], value);
+            }
+        });
+
+        return new CdkAppStack(newApp(context), "appStack", envName, StackProps.builder().env(ENVIRONMENT).build());
+    }
+}
@@ -0,0 +1,108 @@
+package com.myorg.my_construct;
+
+import com.myorg.TestStacks;
+import com.myorg.util.ApplicationEnvironment;
+import org.junit.jupiter.api.Test;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.assertions.Match;
+import software.amazon.awscdk.assertions.Template;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CacheTest {
+
+    private static final String APP_SG_ID = "sg-0123456789abcdef0";
+
+    private static Template synthesize(int shards, int replicasPerShard) {
+
+        return synthesize(new ApplicationEnvironment("app", "test"), shards, replicasPerShard);
+    }
+
+    private static Template synthesize(ApplicationEnvironment appEnv, int shards, int replicasPerShard) {
+
+        Stack stack = TestStacks.newStack();
+        Network network = new Network(stack, "network", "test", new Network.NetworkInputParams(
+                TestStacks.AVAILABILITY_ZONES, List.of(), Network.NatStrategy.NONE, null));
+        new Cache(stack, "cache", appEnv,
+                new Cache.CacheInputParameters(APP_SG_ID, "cache.t4g.small", shards, replicasPerShard, "allkeys-lru"),
+                network.getOutputParameters());
+
+        return Template.fromStack(stack);
+    }
+
+    @Test
+    public void placesPrimaryAndReplicaInTheFirstAzs() {
+
+        Template template = synthesize(1, 1);
+
+        template.hasResourceProperties("AWS::ElastiCache::ReplicationGroup", Map.of(
+                "CacheNodeType", "cache.t4g.small",
+                "NumNodeGroups", 1,
+                "ReplicasPerNodeGroup", 1,
+                "AutomaticFailoverEnabled", true,
+                "MultiAZEnabled", true,
+                "AtRestEncryptionEnabled", true,
+                "PreferredCacheClusterAZs", List.of("eu-central-1a", "eu-central-1b"),
+                "Port", 6379));
+        template.hasResourceProperties("AWS::ElastiCache::ParameterGroup", Map.of(
+                "CacheParameterGroupFamily", "redis7",
+                "Properties", Map.of(
+                        "maxmemory-policy", "allkeys-lru",
+                        "cluster-enabled", "no")));
+    }
+
+    @Test
+    public void admitsOnlyTheAppInstances() {
+
+        Template template = synthesize(1, 1);
+
+        template.hasResourceProperties("AWS::EC2::SecurityGroup", Map.of(
+                "GroupName", "test-app-cache-sg",
+                "SecurityGroupIngress", List.of(Match.objectLike(Map.of(
+                        "IpProtocol", "tcp",
+                        "FromPort", 6379,
+                        "ToPort", 6379,
+                        "SourceSecurityGroupId", APP_SG_ID))),
+                // No outbound rule but CDK's placeholder that matches no traffic.
+                "SecurityGroupEgress", List.of(Match.objectLike(Map.of("CidrIp", "255.255.255.255/32")))));
+    }
+
+    @Test
+    public void enablesClusterModeForSeveralShards() {
+
+        Template template = synthesize(3, 1);
+
+        template.hasResourceProperties("AWS::ElastiCache::ReplicationGroup", Map.of(
+                "NumNodeGroups", 3,
+                "AutomaticFailoverEnabled", true,
+                "PreferredCacheClusterAZs", Match.absent()));
+        template.hasResourceProperties("AWS::ElastiCache::ParameterGroup", Map.of(
+                "Properties", Match.objectLike(Map.of("cluster-enabled", "yes"))));
+    }
+
+    @Test
+    public void keepsTheReplicationGroupIdValid() {
+
+        Template template = synthesize(new ApplicationEnvironment("checkout--service-with-long-name", "staging"), 1, 0);
+
+        template.hasResourceProperties("AWS::ElastiCache::ReplicationGroup", Map.of(
+                "ReplicationGroupId", "staging-checkout-service-with-long-name"));
+    }
+
+    @Test
+    public void rejectsReplicationGroupIdStartingWithADigit() {
+
+        assertThrows(IllegalArgumentException.class,
+                () -> synthesize(new ApplicationEnvironment("app", "2024test"), 1, 0));
+    }
+
+    @Test
+    public void rejectsUnknownEvictionPolicy() {
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new Cache.CacheInputParameters(APP_SG_ID, "cache.t4g.small", 1, 1, "lru"));
+    }
+}
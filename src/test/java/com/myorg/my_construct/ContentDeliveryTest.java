@@ -0,0 +1,93 @@
+package com.myorg.my_construct;
+
+import com.myorg.TestStacks;
+import com.myorg.util.ApplicationEnvironment;
+import org.junit.jupiter.api.Test;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.assertions.Match;
+import software.amazon.awscdk.assertions.Template;
+import software.amazon.awscdk.services.cloudfront.PriceClass;
+import software.amazon.awscdk.services.elasticloadbalancingv2.ApplicationLoadBalancer;
+
+import java.util.List;
+import java.util.Map;
+
+public class ContentDeliveryTest {
+
+    private static Template synthesize(
+            ContentDelivery.CachingParameters appCaching, ContentDelivery.CachingParameters staticCaching) {
+
+        Stack stack = TestStacks.newStack();
+        Network network = new Network(stack, "network", "test", new Network.NetworkInputParams(
+                TestStacks.AVAILABILITY_ZONES.subList(0, 2), List.of(), Network.NatStrategy.NONE, null));
+        ApplicationLoadBalancer alb = ApplicationLoadBalancer.Builder
+                .create(stack, "alb")
+                .vpc(network.getOutputParameters().getVpc())
+                .internetFacing(true)
+                .build();
+        new ContentDelivery(stack, "content-delivery", new ApplicationEnvironment("app", "test"),
+                new ContentDelivery.ContentDeliveryInputParameters(alb, "arn:aws:s3:::app-bucket",
+                        PriceClass.PRICE_CLASS_100, appCaching, staticCaching));
+
+        return Template.fromStack(stack);
+    }
+
+    @Test
+    public void servesStaticAssetsFromTheBucketThroughOac() {
+
+        Template template = synthesize(new ContentDelivery.CachingParameters(0, 300),
+                new ContentDelivery.CachingParameters(86400, 31536000));
+
+        template.hasResourceProperties("AWS::CloudFront::OriginAccessControl", Map.of(
+                "OriginAccessControlConfig", Map.of(
+                        "Name", Match.stringLikeRegexp("test-app-asset-oac-.*"),
+                        "OriginAccessControlOriginType", "s3",
+                        "SigningBehavior", "always",
+                        "SigningProtocol", "sigv4")));
+        template.hasResourceProperties("AWS::CloudFront::Distribution", Map.of(
+                "DistributionConfig", Match.objectLike(Map.of(
+                        "PriceClass", "PriceClass_100",
+                        "HttpVersion", "http2and3",
+                        "DefaultCacheBehavior", Match.objectLike(Map.of(
+                                "ViewerProtocolPolicy", "redirect-to-https",
+                                "Compress", true)),
+                        "CacheBehaviors", List.of(Match.objectLike(Map.of(
+                                "PathPattern", "/static/*",
+                                "AllowedMethods", List.of("GET", "HEAD"),
+                                "Compress", true))),
+                        "Origins", List.of(
+                                Match.objectLike(Map.of(
+                                        "DomainName", Map.of("Fn::GetAtt", List.of(
+                                                Match.stringLikeRegexp("alb.*"), "DNSName")),
+                                        "CustomOriginConfig", Match.anyValue(),
+                                        "OriginAccessControlId", Match.absent())),
+                                Match.objectLike(Map.of(
+                                        "S3OriginConfig", Map.of("OriginAccessIdentity", ""),
+                                        "OriginAccessControlId", Match.anyValue(),
+                                        "CustomOriginConfig", Match.absent())))))));
+        template.hasResourceProperties("AWS::CloudFront::CachePolicy", Map.of(
+                "CachePolicyConfig", Match.objectLike(Map.of(
+                        "DefaultTTL", 86400,
+                        "MaxTTL", 31536000,
+                        "ParametersInCacheKeyAndForwardedToOrigin", Match.objectLike(Map.of(
+                                "EnableAcceptEncodingGzip", true,
+                                "EnableAcceptEncodingBrotli", true))))));
+    }
+
+    @Test
+    public void disablesCachingAndCompressionWhenNothingIsCached() {
+
+        Template template = synthesize(new ContentDelivery.CachingParameters(0, 0),
+                new ContentDelivery.CachingParameters(86400, 31536000));
+
+        // Only the static behavior gets a policy of its own, the app uses the managed CachingDisabled policy
+        // and still receives the query strings through the AllViewer origin request policy.
+        template.resourceCountIs("AWS::CloudFront::CachePolicy", 1);
+        template.hasResourceProperties("AWS::CloudFront::Distribution", Map.of(
+                "DistributionConfig", Match.objectLike(Map.of(
+                        "DefaultCacheBehavior", Match.objectLike(Map.of(
+                                "CachePolicyId", "4135ea2d-6df8-44a3-9df3-4b5a84be39ad",
+                                "OriginRequestPolicyId", "216adef6-5c7f-47e4-b989-5492eafa07d3",
+                                "Compress", false))))));
+    }
+}
@@ -0,0 +1,230 @@
+package com.myorg.my_construct;
+
+import com.myorg.TestStacks;
+import com.myorg.util.ApplicationEnvironment;
+import com.myorg.util.InstanceSizing;
+import org.junit.jupiter.api.Test;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.assertions.Match;
+import software.amazon.awscdk.assertions.Template;
+import software.amazon.awscdk.services.ec2.InstanceType;
+import software.amazon.awscdk.services.iam.Role;
+import software.amazon.awscdk.services.iam.ServicePrincipal;
+import software.amazon.awscdk.services.logs.RetentionDays;
+import software.amazon.awscdk.services.rds.StorageType;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DatabaseTest {
+
+    private static final Database.StorageParameters GP3_STORAGE =
+            new Database.StorageParameters(StorageType.GP3, 20, 100, null, null);
+
+    private static final Database.DiagnosticsParameters NO_DIAGNOSTICS =
+            new Database.DiagnosticsParameters(false, 7, null, 0, List.of(), RetentionDays.ONE_WEEK);
+
+    private static final Database.MaintenanceParameters OFF_PEAK_MAINTENANCE = new Database.MaintenanceParameters(
+            "01:00-01:30", "sun:02:00-sun:03:00", 14, false, false, "05:00-21:00");
+
+    private static Database.DatabaseInputParameters inputParameters(
+            Database.EngineMode engineMode, String instanceSize, int replicaCount) {
+
+        return new Database.DatabaseInputParameters("admin", "sg-app", "sg-bastion", null,
+                new InstanceSizing("t3", instanceSize, true, null),
+                new Database.ReplicaParameters(replicaCount, new InstanceType("t4g.medium")), GP3_STORAGE,
+                NO_DIAGNOSTICS, new Database.EngineParameters(Map.of(), Map.of()), engineMode,
+                new Database.ServerlessCapacityParameters(0.5, 4), OFF_PEAK_MAINTENANCE);
+    }
+
+    private static Template synthesize(Database.DatabaseInputParameters inputParameters) {
+
+        Stack stack = TestStacks.newStack();
+        Network network = new Network(stack, "network", "test", new Network.NetworkInputParams(
+                TestStacks.AVAILABILITY_ZONES, List.of(), Network.NatStrategy.NONE, null));
+        new Database(stack, "database", new ApplicationEnvironment("app", "test"), inputParameters,
+                network.getOutputParameters());
+
+        return Template.fromStack(stack);
+    }
+
+    @Test
+    public void placesSingleInstanceInPrimaryAz() {
+
+        Template template = synthesize(inputParameters(Database.EngineMode.INSTANCE, "micro", 0));
+
+        template.resourceCountIs("AWS::RDS::DBInstance", 1);
+        template.hasResourceProperties("AWS::RDS::DBInstance", Map.of(
+                "DBInstanceClass", "db.t4g.micro",
+                "MultiAZ", false,
+                "AvailabilityZone", "eu-central-1a",
+                "StorageType", "gp3",
+                "AllocatedStorage", "20",
+                "MaxAllocatedStorage", 100));
+        template.hasResourceProperties("AWS::RDS::DBInstance", Map.of(
+                "PreferredBackupWindow", "01:00-01:30",
+                "PreferredMaintenanceWindow", "sun:02:00-sun:03:00",
+                "BackupRetentionPeriod", 14,
+                "DeleteAutomatedBackups", false,
+                "AutoMinorVersionUpgrade", false));
+        // Half of the 3000 IOPS gp3 baseline for background flushing.
+        template.hasResourceProperties("AWS::RDS::DBParameterGroup", Map.of(
+                "Parameters", Match.objectLike(Map.of(
+                        "innodb_io_capacity", "1500",
+                        "innodb_io_capacity_max", "3000",
+                        "innodb_buffer_pool_size", "{DBInstanceClassMemory*1/2}"))));
+    }
+
+    @Test
+    public void spreadsReplicasFromTheSecondAz() {
+
+        Template template = synthesize(inputParameters(Database.EngineMode.MULTI_AZ, "medium", 2));
+
+        template.resourceCountIs("AWS::RDS::DBInstance", 3);
+        template.hasResourceProperties("AWS::RDS::DBInstance", Map.of(
+                "DBInstanceClass", "db.t4g.medium",
+                "MultiAZ", true,
+                "AvailabilityZone", Match.absent()));
+        template.hasResourceProperties("AWS::RDS::DBInstance", Map.of(
+                "SourceDBInstanceIdentifier", Match.anyValue(),
+                "AvailabilityZone", "eu-central-1b"));
+        template.hasResourceProperties("AWS::RDS::DBInstance", Map.of(
+                "SourceDBInstanceIdentifier", Match.anyValue(),
+                "AvailabilityZone", "eu-central-1c"));
+    }
+
+    @Test
+    public void createsAuroraClusterWithReaders() {
+
+        Template template = synthesize(inputParameters(Database.EngineMode.AURORA, "medium", 1));
+
+        template.resourceCountIs("AWS::RDS::DBCluster", 1);
+        template.resourceCountIs("AWS::RDS::DBInstance", 2);
+        template.hasResourceProperties("AWS::RDS::DBCluster", Map.of(
+                "Engine", "aurora-mysql",
+                "StorageEncrypted", true,
+                "PreferredBackupWindow", "01:00-01:30",
+                "PreferredMaintenanceWindow", "sun:02:00-sun:03:00",
+                "BackupRetentionPeriod", 14));
+        template.hasResourceProperties("AWS::RDS::DBInstance", Map.of("DBInstanceClass", "db.t4g.medium"));
+        template.hasResourceProperties("AWS::RDS::DBParameterGroup", Map.of(
+                "Parameters", Match.objectLike(Map.of("innodb_io_capacity", Match.absent()))));
+    }
+
+    @Test
+    public void boundsServerlessCapacity() {
+
+        Template template = synthesize(inputParameters(Database.EngineMode.AURORA_SERVERLESS, "medium", 0));
+
+        template.hasResourceProperties("AWS::RDS::DBCluster", Map.of(
+                "ServerlessV2ScalingConfiguration", Map.of(
+                        "MinCapacity", 0.5,
+                        "MaxCapacity", 4)));
+        template.hasResourceProperties("AWS::RDS::DBInstance", Map.of("DBInstanceClass", "db.serverless"));
+    }
+
+    /**
+     * The app writes through the proxy with IAM tokens, but reads from the replica, which isn't behind the proxy,
+     * with the credentials of the secret.
+     */
+    @Test
+    public void grantsTheAppIamAuthenticationToTheProxyAndTheSecretToTheReplicas() {
+
+        Stack stack = TestStacks.newStack();
+        Network network = new Network(stack, "network", "test", new Network.NetworkInputParams(
+                TestStacks.AVAILABILITY_ZONES, List.of(), Network.NatStrategy.NONE, null));
+        Database database = new Database(stack, "database", new ApplicationEnvironment("app", "test"),
+                new Database.DatabaseInputParameters("admin", "sg-app", "sg-bastion",
+                        new Database.ProxyParameters(30, 90, 50), new InstanceSizing("t3", "medium", true, null),
+                        new Database.ReplicaParameters(1, new InstanceType("t4g.medium")), GP3_STORAGE,
+                        NO_DIAGNOSTICS, new Database.EngineParameters(Map.of(), Map.of()),
+                        Database.EngineMode.MULTI_AZ, null, OFF_PEAK_MAINTENANCE),
+                network.getOutputParameters());
+        database.grantConnect(Role.Builder.create(stack, "app-role")
+                                          .assumedBy(new ServicePrincipal("ec2.amazonaws.com"))
+                                          .build());
+
+        Template template = Template.fromStack(stack);
+        template.hasResourceProperties("AWS::RDS::DBProxy", Map.of("RequireTLS", true,
+                "Auth", List.of(Match.objectLike(Map.of("IAMAuth", "REQUIRED")))));
+        template.hasResourceProperties("AWS::IAM::Policy", Map.of(
+                "PolicyDocument", Map.of("Statement", Match.arrayWith(List.of(
+                        Match.objectLike(Map.of(
+                                "Action", List.of("secretsmanager:GetSecretValue", "secretsmanager:DescribeSecret"),
+                                "Effect", "Allow")),
+                        Match.objectLike(Map.of(
+                                "Action", "rds-db:connect",
+                                "Effect", "Allow",
+                                "Resource", Match.anyValue()))))),
+                "Roles", List.of(Match.anyValue())));
+
+        Database.DatabaseOutputParameters outputParameters = database.getOutputParameters();
+        assertEquals(outputParameters.getProxyEndpoint(), outputParameters.getWriterEndpoint());
+        assertFalse(outputParameters.isReaderIamAuth());
+    }
+
+    @Test
+    public void rejectsAuroraOnMicroInstances() {
+
+        assertThrows(IllegalArgumentException.class,
+                () -> inputParameters(Database.EngineMode.AURORA, "micro", 0));
+    }
+
+    @Test
+    public void rejectsProvisionedGp3PerformanceOnSmallVolumes() {
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new Database.StorageParameters(StorageType.GP3, 100, 200, 12000, null));
+    }
+
+    @Test
+    public void rejectsAuditLogWithoutOptionGroup() {
+
+        assertThrows(IllegalArgumentException.class, () -> new Database.DiagnosticsParameters(
+                false, 7, null, 0, List.of("error", "audit"), RetentionDays.ONE_WEEK));
+    }
+
+    @Test
+    public void rejectsWindowsOverlappingPeakTraffic() {
+
+        assertThrows(IllegalArgumentException.class, () -> new Database.MaintenanceParameters(
+                "04:45-05:15", "sun:02:00-sun:03:00", 7, true, true, "05:00-21:00"));
+        assertThrows(IllegalArgumentException.class, () -> new Database.MaintenanceParameters(
+                "01:00-01:30", "wed:20:30-wed:21:30", 7, true, true, "05:00-21:00"));
+    }
+
+    @Test
+    public void rejectsBackupDuringMaintenance() {
+
+        // The maintenance window runs past the end of the week into Monday's backup.
+        assertThrows(IllegalArgumentException.class, () -> new Database.MaintenanceParameters(
+                "00:00-00:45", "sun:23:30-mon:00:30", 7, true, true, null));
+    }
+
+    @Test
+    public void acceptsWindowsAroundMidnight() {
+
+        new Database.MaintenanceParameters("23:45-00:15", "mon:00:30-mon:01:30", 7, true, true, "06:00-22:00");
+    }
+
+    @Test
+    public void rejectsShortWindow() {
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new Database.MaintenanceParameters("01:00-01:15", null, 7, true, true, null));
+    }
+
+    @Test
+    public void rejectsAuroraWithoutBackups() {
+
+        assertThrows(IllegalArgumentException.class, () -> new Database.DatabaseInputParameters("admin", "sg-app",
+                "sg-bastion", null, new InstanceSizing("t3", "medium", true, null),
+                new Database.ReplicaParameters(0, new InstanceType("t4g.medium")), GP3_STORAGE, NO_DIAGNOSTICS,
+                new Database.EngineParameters(Map.of(), Map.of()), Database.EngineMode.AURORA, null,
+                new Database.MaintenanceParameters(null, null, 0, true, true, null)));
+    }
+}
@@ -0,0 +1,71 @@
+package com.myorg.my_construct;
+
+import com.myorg.TestStacks;
+import com.myorg.util.ApplicationEnvironment;
+import com.myorg.util.InstanceSizing;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.assertions.Match;
+import software.amazon.awscdk.assertions.Template;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LoadGeneratorTest {
+
+    private static final LoadGenerator.LoadGeneratorInputParameters INPUT_PARAMETERS =
+            new LoadGenerator.LoadGeneratorInputParameters("http://app.example.com",
+                    new InstanceSizing("c6i", "large", true, null), 2, List.of("/:80", "/api/items:20"), 100, 32, 900);
+
+    private static Template synthesize(String envName) {
+
+        Stack stack = TestStacks.newStack();
+        Network network = new Network(stack, "network", envName, new Network.NetworkInputParams(
+                TestStacks.AVAILABILITY_ZONES.subList(0, 2), List.of(), Network.NatStrategy.SHARED, null));
+        new LoadGenerator(stack, "load-generator", new ApplicationEnvironment("app", envName), INPUT_PARAMETERS,
+                network.getOutputParameters());
+
+        return Template.fromStack(stack);
+    }
+
+    @Test
+    public void runsTheScenarioFromAFixedFleet() {
+
+        Template template = synthesize("dev");
+
+        template.hasResourceProperties("AWS::AutoScaling::AutoScalingGroup", Map.of(
+                "MinSize", "2",
+                "MaxSize", "2"));
+        template.hasResourceProperties("AWS::EC2::LaunchTemplate", Map.of(
+                "LaunchTemplateData", Match.objectLike(Map.of(
+                        "InstanceType", "c6g.large",
+                        "UserData", Map.of("Fn::Base64", Match.stringLikeRegexp(
+                                "[\\s\\S]*python3 /opt/load-generator/scenario.py --url 'http://app.example.com' "
+                                + "--requests-per-second 100.0 --concurrency 32 --duration-seconds 900 "
+                                + "--namespace LoadGenerator --dimension 'Environment=dev-app' "
+                                + "--path '/:80' --path '/api/items:20'[\\s\\S]*"))))));
+        template.hasResourceProperties("AWS::IAM::Role", Map.of(
+                "Policies", List.of(Map.of(
+                        "PolicyName", "dev-app-putMetricDataPolicy",
+                        "PolicyDocument", Map.of("Statement", List.of(Map.of(
+                                "Effect", "Allow",
+                                "Action", "cloudwatch:PutMetricData",
+                                "Resource", "*",
+                                "Condition", Map.of("StringEquals", Map.of(
+                                        "cloudwatch:namespace", LoadGenerator.METRIC_NAMESPACE)))),
+                                "Version", Match.anyValue())))));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/'; rm -rf /", "/a:b", "/a:"})
+    public void rejectsPathsBreakingTheCommandLine(String path) {
+
+        assertThrows(IllegalArgumentException.class, () -> new LoadGenerator.LoadGeneratorInputParameters(
+                "http://app.example.com", new InstanceSizing("c6i", "large", false, null), 1,
+                List.of(path), 100, 32, 900));
+    }
+}
@@ -0,0 +1,95 @@
+package com.myorg.my_construct;
+
+import com.myorg.TestStacks;
+import com.myorg.util.ApplicationEnvironment;
+import org.junit.jupiter.api.Test;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.assertions.Template;
+
+import java.util.List;
+import java.util.Map;
+
+public class MonitoringTest {
+
+    private static final Monitoring.MonitoringInputParameters THRESHOLDS =
+            new Monitoring.MonitoringInputParameters("ops@example.com", 30, 250, 20, 25, 5, 30);
+
+    private static Template synthesize(String clusterIdentifier) {
+
+        Stack stack = TestStacks.newStack();
+        new Monitoring(stack, "monitoring", new ApplicationEnvironment("app", "test"), THRESHOLDS,
+                new Service.ServiceOutputParameters("sg-app", null, "app.example.com", null, "app/test-app-alb/1234",
+                        "test-app-app-asg"),
+                new Database.DatabaseOutputParameters("admin",
+                        "arn:aws:secretsmanager:eu-central-1:587499190148:secret:test-app-DatabaseSecret",
+                        "db.example.com", null, "db.example.com", List.of("replica.example.com"), false,
+                        clusterIdentifier, "test-app-database", List.of("test-app-database-replica-1")),
+                new BastionHost.BastionHostOutputParameters("sg-bastion", "i-0123456789abcdef0"));
+
+        return Template.fromStack(stack);
+    }
+
+    @Test
+    public void alarmsOnCpuCreditsAtTheirFiveMinuteResolution() {
+
+        Template template = synthesize(null);
+
+        template.hasResourceProperties("AWS::CloudWatch::Alarm", Map.of(
+                "AlarmName", "test-app-app-cpu-credit-balance",
+                "Namespace", "AWS/EC2",
+                "MetricName", "CPUCreditBalance",
+                "Dimensions", List.of(Map.of("Name", "AutoScalingGroupName", "Value", "test-app-app-asg")),
+                "Statistic", "Minimum",
+                "Period", 300,
+                "EvaluationPeriods", 3,
+                "Threshold", 30,
+                "ComparisonOperator", "LessThanThreshold",
+                "TreatMissingData", "notBreaching"));
+        template.hasResourceProperties("AWS::CloudWatch::Alarm", Map.of(
+                "AlarmName", "test-app-bh-cpu-credit-balance",
+                "Dimensions", List.of(Map.of("Name", "InstanceId", "Value", "i-0123456789abcdef0")),
+                "Period", 300));
+        template.hasResourceProperties("AWS::SNS::Subscription", Map.of(
+                "Protocol", "email",
+                "Endpoint", "ops@example.com"));
+    }
+
+    @Test
+    public void alarmsOnDatabaseThresholdsEveryMinute() {
+
+        Template template = synthesize(null);
+
+        template.resourceCountIs("AWS::CloudWatch::Alarm", 7);
+        template.hasResourceProperties("AWS::CloudWatch::Alarm", Map.of(
+                "MetricName", "DatabaseConnections",
+                "Period", 60,
+                "Threshold", 250,
+                "ComparisonOperator", "GreaterThanThreshold"));
+        template.hasResourceProperties("AWS::CloudWatch::Alarm", Map.of(
+                "MetricName", "ReadLatency",
+                "Threshold", 0.02));
+        template.hasResourceProperties("AWS::CloudWatch::Alarm", Map.of(
+                "MetricName", "WriteLatency",
+                "Threshold", 0.025));
+        template.hasResourceProperties("AWS::CloudWatch::Alarm", Map.of(
+                "MetricName", "FreeStorageSpace",
+                "Threshold", 5 * 1024 * 1024 * 1024.0,
+                "ComparisonOperator", "LessThanThreshold"));
+        template.hasResourceProperties("AWS::CloudWatch::Alarm", Map.of(
+                "MetricName", "ReplicaLag",
+                "Dimensions", List.of(Map.of("Name", "DBInstanceIdentifier", "Value", "test-app-database-replica-1")),
+                "Threshold", 30));
+    }
+
+    @Test
+    public void alarmsOnAuroraReplicaLagInMilliseconds() {
+
+        Template template = synthesize("test-app-database-cluster");
+
+        template.hasResourceProperties("AWS::CloudWatch::Alarm", Map.of(
+                "MetricName", "AuroraReplicaLag",
+                "Threshold", 30000));
+        template.hasResourceProperties("AWS::CloudWatch::Alarm", Map.of(
+                "MetricName", "FreeLocalStorage"));
+    }
+}
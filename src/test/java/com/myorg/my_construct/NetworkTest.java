@@ -0,0 +1,79 @@
+package com.myorg.my_construct;
+
+import com.myorg.TestStacks;
+import org.junit.jupiter.api.Test;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.assertions.Template;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class NetworkTest {
+
+    @Test
+    public void createsOneNatGatewayPerAz() {
+
+        Stack stack = TestStacks.newStack();
+        Network network = new Network(stack, "network", "test", new Network.NetworkInputParams(
+                TestStacks.AVAILABILITY_ZONES, List.of(), Network.NatStrategy.PER_AZ, null));
+
+        Template template = Template.fromStack(stack);
+        template.resourceCountIs("AWS::EC2::Subnet", 9);
+        template.resourceCountIs("AWS::EC2::NatGateway", 3);
+        template.hasResourceProperties("AWS::EC2::Subnet", Map.of(
+                "CidrBlock", "10.0.0.0/20",
+                "AvailabilityZone", "eu-central-1a"));
+
+        Network.NetworkOutputParameters outputParameters = network.getOutputParameters();
+        assertEquals("eu-central-1a", outputParameters.getPrimaryAvailabilityZone());
+        assertEquals(TestStacks.AVAILABILITY_ZONES, List.copyOf(outputParameters.getAppSubnetsByAz().keySet()));
+    }
+
+    @Test
+    public void sharesOneNatGateway() {
+
+        Stack stack = TestStacks.newStack();
+        new Network(stack, "network", "test", new Network.NetworkInputParams(
+                TestStacks.AVAILABILITY_ZONES, List.of(), Network.NatStrategy.SHARED, null));
+
+        Template.fromStack(stack).resourceCountIs("AWS::EC2::NatGateway", 1);
+    }
+
+    @Test
+    public void omitsAppTierWithoutNat() {
+
+        Stack stack = TestStacks.newStack();
+        Network network = new Network(stack, "network", "test", new Network.NetworkInputParams(
+                TestStacks.AVAILABILITY_ZONES.subList(0, 2), List.of("s3"), Network.NatStrategy.NONE, null));
+
+        Template template = Template.fromStack(stack);
+        template.resourceCountIs("AWS::EC2::Subnet", 4);
+        template.resourceCountIs("AWS::EC2::NatGateway", 0);
+        template.resourceCountIs("AWS::EC2::VPCEndpoint", 1);
+        assertEquals(0, network.getOutputParameters().getAppSubnets().size());
+    }
+
+    @Test
+    public void shrinksSubnetsBeyondSixteen() {
+
+        // Environment-agnostic, so that the VPC accepts AZs the cached context doesn't know.
+        Stack stack = new Stack(TestStacks.newApp(), "test");
+        new Network(stack, "network", "test", new Network.NetworkInputParams(
+                List.of("az-a", "az-b", "az-c", "az-d", "az-e", "az-f"), List.of(), Network.NatStrategy.SHARED,
+                null));
+
+        Template template = Template.fromStack(stack);
+        template.resourceCountIs("AWS::EC2::Subnet", 18);
+        template.hasResourceProperties("AWS::EC2::Subnet", Map.of("CidrBlock", "10.0.0.0/21"));
+    }
+
+    @Test
+    public void rejectsUnknownEndpoint() {
+
+        assertThrows(IllegalArgumentException.class, () -> new Network.NetworkInputParams(
+                TestStacks.AVAILABILITY_ZONES, List.of("sqs"), Network.NatStrategy.NONE, null));
+    }
+}
@@ -0,0 +1,267 @@
+package com.myorg.my_construct;
+
+import com.myorg.TestStacks;
+import com.myorg.util.ApplicationEnvironment;
+import com.myorg.util.Gp3Volume;
+import com.myorg.util.InstanceSizing;
+import org.junit.jupiter.api.Test;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.assertions.Match;
+import software.amazon.awscdk.assertions.Template;
+import software.amazon.awscdk.services.ec2.CpuCredits;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ServiceTest {
+
+    private static final String BASTION_HOST_SG_ID = "sg-0123456789abcdef0";
+
+    private static final Service.ScalingParameters SCALING =
+            new Service.ScalingParameters(2, 4, 60, 1000, List.of(), null);
+
+    private static final Service.DeploymentParameters DEPLOYMENT =
+            new Service.DeploymentParameters(100, 300, 0, null);
+
+    private static final Service.BlockStorageParameters STORAGE =
+            new Service.BlockStorageParameters("/dev/xvda", new Gp3Volume(8, null, null), null, false);
+
+    private static Template synthesize(
+            Network.NatStrategy natStrategy, InstanceSizing sizing, Service.ScalingParameters scaling,
+            Service.DeploymentParameters deployment) {
+
+        return synthesize(natStrategy, sizing, scaling, deployment, STORAGE, null, null);
+    }
+
+    private static Template synthesize(
+            Network.NatStrategy natStrategy, InstanceSizing sizing, Service.ScalingParameters scaling,
+            Service.DeploymentParameters deployment, Service.BlockStorageParameters storage,
+            Service.PlacementParameters placement, Service.CloudWatchAgentParameters agent) {
+
+        return synthesize(TestStacks.AVAILABILITY_ZONES.subList(0, 2), natStrategy, sizing, scaling, deployment,
+                storage, placement, agent);
+    }
+
+    private static Template synthesize(
+            List<String> availabilityZones, Network.NatStrategy natStrategy, InstanceSizing sizing,
+            Service.ScalingParameters scaling, Service.DeploymentParameters deployment,
+            Service.BlockStorageParameters storage, Service.PlacementParameters placement,
+            Service.CloudWatchAgentParameters agent) {
+
+        Stack stack = TestStacks.newStack();
+        Network network = new Network(stack, "network", "test", new Network.NetworkInputParams(
+                availabilityZones, List.of(), natStrategy, null));
+        new Service(stack, "service", new ApplicationEnvironment("app", "test"),
+                new Service.ServiceInputParameters("app-image", "key-pair", "arn:aws:s3:::app-bucket",
+                        BASTION_HOST_SG_ID, "/health", sizing, scaling, deployment, storage,
+                        placement, agent),
+                network.getOutputParameters());
+
+        return Template.fromStack(stack);
+    }
+
+    @Test
+    public void launchesSizedInstancesBehindTheLoadBalancer() {
+
+        Template template = synthesize(Network.NatStrategy.SHARED,
+                new InstanceSizing("t3", "small", false, CpuCredits.UNLIMITED), SCALING, DEPLOYMENT);
+
+        template.hasResourceProperties("AWS::EC2::LaunchTemplate", Map.of(
+                "LaunchTemplateData", Match.objectLike(Map.of(
+                        "InstanceType", "t3.small",
+                        "CreditSpecification", Map.of("CpuCredits", "unlimited")))));
+        template.hasResourceProperties("AWS::AutoScaling::AutoScalingGroup", Map.of(
+                "MinSize", "2",
+                "MaxSize", "4",
+                "HealthCheckType", "ELB",
+                "HealthCheckGracePeriod", 300));
+        template.hasResourceProperties("AWS::ElasticLoadBalancingV2::TargetGroup", Map.of(
+                "HealthCheckPath", "/health",
+                "TargetGroupAttributes", Match.arrayWith(List.of(Map.of(
+                        "Key", "deregistration_delay.timeout_seconds",
+                        "Value", "30")))));
+        template.resourceCountIs("AWS::AutoScaling::ScalingPolicy", 2);
+        template.hasResourceProperties("AWS::AutoScaling::ScalingPolicy", Map.of(
+                "TargetTrackingConfiguration", Match.objectLike(Map.of(
+                        "PredefinedMetricSpecification", Map.of("PredefinedMetricType", "ASGAverageCPUUtilization"),
+                        "TargetValue", 60))));
+    }
+
+    @Test
+    public void admitsSshOnlyFromTheBastionHost() {
+
+        Template template = synthesize(Network.NatStrategy.NONE, new InstanceSizing("t3", "micro", false, null),
+                SCALING, DEPLOYMENT);
+
+        template.hasResourceProperties("AWS::EC2::SecurityGroup", Map.of(
+                "GroupName", "test-app-app-sg",
+                "SecurityGroupIngress", List.of(Map.of(
+                        "IpProtocol", "tcp",
+                        "FromPort", 22,
+                        "ToPort", 22,
+                        "SourceSecurityGroupId", BASTION_HOST_SG_ID,
+                        "Description", Match.anyValue()))));
+    }
+
+    @Test
+    public void scalesAheadOfTheDailyPeak() {
+
+        Template template = synthesize(Network.NatStrategy.SHARED, new InstanceSizing("t3", "small", false, null),
+                new Service.ScalingParameters(2, 6, 50, 1000, List.of(
+                        new Service.ScheduledScalingParameters("weekday-peak", "0 7 * * MON-FRI", "Europe/Berlin",
+                                4, null, null)),
+                        new Service.PredictiveScalingParameters(false, 600, null)), DEPLOYMENT);
+
+        template.hasResourceProperties("AWS::AutoScaling::ScheduledAction", Map.of(
+                "Recurrence", "0 7 * * MON-FRI",
+                "TimeZone", "Europe/Berlin",
+                "MinSize", 4));
+        template.hasResourceProperties("AWS::AutoScaling::ScalingPolicy", Map.of(
+                "PolicyType", "PredictiveScaling",
+                "PredictiveScalingConfiguration", Match.objectLike(Map.of(
+                        "Mode", "ForecastAndScale",
+                        "SchedulingBufferTime", 600,
+                        "MaxCapacityBreachBehavior", "HonorMaxCapacity",
+                        "MetricSpecifications", List.of(Map.of(
+                                "TargetValue", 50,
+                                "PredefinedMetricPairSpecification", Map.of(
+                                        "PredefinedMetricType", "ASGCPUUtilization")))))));
+    }
+
+    @Test
+    public void rollsOutWithoutLosingCapacity() {
+
+        Template template = synthesize(Network.NatStrategy.SHARED, new InstanceSizing("t3", "small", false, null),
+                SCALING,
+                new Service.DeploymentParameters(100, 180, 120, new Service.WarmPoolParameters(2, null, true)));
+
+        // Each batch waits for the signals of its instances, up to the health check grace period plus the warm-up.
+        template.hasResource("AWS::AutoScaling::AutoScalingGroup", Map.of(
+                "Properties", Match.objectLike(Map.of("DefaultInstanceWarmup", 180)),
+                "CreationPolicy", Map.of("ResourceSignal", Map.of(
+                        "Count", 2,
+                        "Timeout", "PT8M")),
+                "UpdatePolicy", Map.of("AutoScalingRollingUpdate", Match.objectLike(Map.of(
+                        "MinInstancesInService", 2,
+                        "MaxBatchSize", 1,
+                        "WaitOnResourceSignals", true,
+                        "PauseTime", "PT8M")))));
+        // The health probe runs before the signal, after all commands of the user data.
+        template.hasResourceProperties("AWS::EC2::LaunchTemplate", Map.of(
+                "LaunchTemplateData", Match.objectLike(Map.of(
+                        "UserData", Map.of("Fn::Base64", Match.stringLikeRegexp(
+                                "[\\s\\S]*until curl -fs -o /dev/null 'http://localhost:80/health'[\\s\\S]*"
+                                + "/opt/aws/bin/cfn-signal --stack test [\\s\\S]*"))))));
+        template.hasResourceProperties("AWS::AutoScaling::WarmPool", Map.of(
+                "MinSize", 2,
+                "PoolState", "Stopped",
+                "InstanceReusePolicy", Map.of("ReuseOnScaleIn", true)));
+        template.hasResourceProperties("AWS::ElasticLoadBalancingV2::TargetGroup", Map.of(
+                "TargetGroupAttributes", Match.arrayWith(List.of(Map.of(
+                        "Key", "slow_start.duration_seconds",
+                        "Value", "120")))));
+    }
+
+    @Test
+    public void rejectsRolloutWithoutRoomAboveTheHealthyInstances() {
+
+        assertThrows(IllegalArgumentException.class, () -> new Service.ServiceInputParameters("app-image",
+                "key-pair", "arn:aws:s3:::app-bucket", BASTION_HOST_SG_ID, "/health",
+                new InstanceSizing("t3", "small", false, null),
+                new Service.ScalingParameters(2, 2, 60, 1000, List.of(), null), DEPLOYMENT, STORAGE, null,
+                null));
+    }
+
+    @Test
+    public void tunesBlockStorageAndSpreadsInstances() {
+
+        Template template = synthesize(Network.NatStrategy.SHARED, new InstanceSizing("m6i", "large", false, null),
+                SCALING, DEPLOYMENT, new Service.BlockStorageParameters("/dev/xvda", new Gp3Volume(20, 3000, 250),
+                        new Gp3Volume(50, null, null), true),
+                new Service.PlacementParameters(Service.PlacementStrategy.SPREAD, null), null);
+
+        template.hasResourceProperties("AWS::EC2::LaunchTemplate", Map.of(
+                "LaunchTemplateData", Match.objectLike(Map.of(
+                        "EbsOptimized", true,
+                        "BlockDeviceMappings", List.of(
+                                Map.of("DeviceName", "/dev/xvda", "Ebs", Map.of(
+                                        "VolumeSize", 20,
+                                        "VolumeType", "gp3",
+                                        "Iops", 3000,
+                                        "Throughput", 250,
+                                        "Encrypted", true,
+                                        "DeleteOnTermination", true)),
+                                Map.of("DeviceName", "/dev/sdf", "Ebs", Match.objectLike(Map.of(
+                                        "VolumeSize", 50,
+                                        "VolumeType", "gp3",
+                                        "Encrypted", true))))))));
+        template.hasResourceProperties("AWS::EC2::PlacementGroup", Map.of(
+                "Strategy", "spread",
+                "SpreadLevel", "rack"));
+        template.hasResourceProperties("AWS::AutoScaling::AutoScalingGroup", Map.of(
+                "PlacementGroup", Match.anyValue()));
+    }
+
+    @Test
+    public void configuresTheCloudWatchAgent() {
+
+        Template template = synthesize(Network.NatStrategy.SHARED, new InstanceSizing("t3", "small", false, null),
+                SCALING, DEPLOYMENT, STORAGE, null, new Service.CloudWatchAgentParameters(10, true, true, 9010));
+
+        template.hasResourceProperties("AWS::SSM::Parameter", Map.of(
+                "Name", "AmazonCloudWatch-test-app-app",
+                "Value", Match.stringLikeRegexp("\\{\"agent\":\\{\"metrics_collection_interval\":10}.*"
+                                                + "\"statsd\".*\"endpoint\":\"localhost:9010\".*\"emf\".*")));
+        template.hasResourceProperties("AWS::EC2::LaunchTemplate", Map.of(
+                "LaunchTemplateData", Match.objectLike(Map.of(
+                        "UserData", Map.of("Fn::Base64", Match.stringLikeRegexp(
+                                "[\\s\\S]*rpm -q amazon-cloudwatch-agent \\|\\| "
+                                + "yum install -y amazon-cloudwatch-agent\n"
+                                + ".*-a fetch-config -m ec2 -s -c ssm:AmazonCloudWatch-test-app-app[\\s\\S]*"))))));
+        template.hasResourceProperties("AWS::IAM::Policy", Map.of(
+                "PolicyDocument", Map.of("Statement", Match.arrayWith(List.of(Match.objectLike(Map.of(
+                        "Action", Match.arrayWith(List.of("ssm:GetParameter"))))))),
+                "Roles", Match.anyValue()));
+    }
+
+    @Test
+    public void rejectsClusterPlacementAcrossAzs() {
+
+        assertThrows(IllegalArgumentException.class, () -> synthesize(Network.NatStrategy.SHARED,
+                new InstanceSizing("c6i", "large", false, null), SCALING, DEPLOYMENT, STORAGE,
+                new Service.PlacementParameters(Service.PlacementStrategy.CLUSTER, null), null));
+    }
+
+    @Test
+    public void rejectsClusterPlacementOfBurstableInstances() {
+
+        assertThrows(IllegalArgumentException.class, () -> synthesize(TestStacks.AVAILABILITY_ZONES.subList(0, 1),
+                Network.NatStrategy.SHARED, new InstanceSizing("t3", "large", false, null), SCALING, DEPLOYMENT,
+                STORAGE, new Service.PlacementParameters(Service.PlacementStrategy.CLUSTER, null), null));
+    }
+
+    @Test
+    public void rejectsEbsOptimizationOnT2() {
+
+        assertThrows(IllegalArgumentException.class, () -> synthesize(Network.NatStrategy.SHARED,
+                new InstanceSizing("t2", "micro", false, null), SCALING, DEPLOYMENT,
+                new Service.BlockStorageParameters("/dev/xvda", new Gp3Volume(8, null, null), null, true), null,
+                null));
+    }
+
+    @Test
+    public void rejectsInvalidCapacityBounds() {
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new Service.ScalingParameters(3, 2, 60, 1000, List.of(), null));
+    }
+
+    @Test
+    public void rejectsScheduleWithoutFiveCronFields() {
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new Service.ScheduledScalingParameters("peak", "0 7 * * MON-FRI *", null, 4, null, null));
+    }
+}
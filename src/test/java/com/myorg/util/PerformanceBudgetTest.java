@@ -0,0 +1,105 @@
+package com.myorg.util;
+
+import com.myorg.TestStacks;
+import com.myorg.my_construct.Database;
+import com.myorg.my_construct.LoadGenerator;
+import com.myorg.my_construct.Network;
+import com.myorg.my_construct.Service;
+import org.junit.jupiter.api.Test;
+import software.amazon.awscdk.Aspects;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.assertions.Annotations;
+import software.amazon.awscdk.assertions.Match;
+import software.amazon.awscdk.services.ec2.InstanceType;
+import software.amazon.awscdk.services.logs.RetentionDays;
+import software.amazon.awscdk.services.rds.StorageType;
+import software.constructs.IConstruct;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PerformanceBudgetTest {
+
+    private static final PerformanceBudget.Policy STRICT_POLICY = new PerformanceBudget.Policy(
+            true, false, List.of("nano", "micro"), List.of("gp3"), true, 3, 2, true, true);
+
+    @Test
+    public void prodStaysWithinItsBudget() {
+
+        Annotations annotations = Annotations.fromStack(TestStacks.newCdkAppStack("prod"));
+
+        annotations.hasNoError("*", Match.anyValue());
+        annotations.hasInfo("*", Match.stringLikeRegexp("Capacity: app \\[t3.small, 2-6 instances\\].*3 AZs.*"));
+    }
+
+    @Test
+    public void reportsSingleAzBurstableDatabase() {
+
+        Stack stack = TestStacks.newStack();
+        Network network = new Network(stack, "network", "test", new Network.NetworkInputParams(
+                TestStacks.AVAILABILITY_ZONES.subList(0, 2), List.of(), Network.NatStrategy.NONE, null));
+        new Database(stack, "database", new ApplicationEnvironment("app", "test"),
+                new Database.DatabaseInputParameters("admin", "sg-app", "sg-bastion", null,
+                        new InstanceSizing("t3", "micro", false, null),
+                        new Database.ReplicaParameters(0, new InstanceType("t3.micro")),
+                        new Database.StorageParameters(StorageType.GP2, 20, 100, null, null),
+                        new Database.DiagnosticsParameters(false, 7, null, 0, List.of(), RetentionDays.ONE_WEEK),
+                        new Database.EngineParameters(Map.of(), Map.of()), Database.EngineMode.INSTANCE,
+                        new Database.ServerlessCapacityParameters(0.5, 4),
+                        new Database.MaintenanceParameters(null, null, 1, true, true, null)),
+                network.getOutputParameters());
+
+        Annotations annotations = checkBudget(stack, stack);
+        annotations.hasError("*", "Burstable instance type t3.micro is not allowed");
+        annotations.hasError("*", "Instance size micro of t3.micro is not allowed");
+        annotations.hasError("*", "Storage type gp2 is not one of [gp3]");
+        annotations.hasError("*", "Database instance runs in a single AZ");
+        annotations.hasError("*", "Database instance runs without Performance Insights or enhanced monitoring");
+        annotations.hasError("*", "The VPC spans 2 AZs, at least 3 are required");
+        annotations.hasError("*", "The stack defines no alarms");
+    }
+
+    @Test
+    public void checksTheHeadroomOfTheAppOnly() {
+
+        Stack stack = TestStacks.newStack();
+        Network network = new Network(stack, "network", "test", new Network.NetworkInputParams(
+                TestStacks.AVAILABILITY_ZONES, List.of(), Network.NatStrategy.NONE, null));
+        Service service = new Service(stack, "service", new ApplicationEnvironment("app", "test"),
+                new Service.ServiceInputParameters("app-image", "key-pair", "arn:aws:s3:::app-bucket",
+                        "sg-bastion", "/health", new InstanceSizing("c6i", "large", false, null),
+                        new Service.ScalingParameters(2, 4, 60, 1000, List.of(), null),
+                        new Service.DeploymentParameters(100, 300, 0, null),
+                        new Service.BlockStorageParameters("/dev/xvda", new Gp3Volume(8, null, null), null, false),
+                        null, null),
+                network.getOutputParameters());
+        // A fixed fleet, which would fail the headroom check if it counted as app.
+        new LoadGenerator(stack, "load-generator", new ApplicationEnvironment("app", "test"),
+                new LoadGenerator.LoadGeneratorInputParameters("http://app.example.com",
+                        new InstanceSizing("c6i", "large", false, null), 2, List.of("/"), 100, 32, 900),
+                network.getOutputParameters());
+
+        Annotations annotations = checkBudget(stack, service);
+        annotations.hasNoError("*", Match.stringLikeRegexp("Autoscaling is capped.*"));
+        annotations.hasInfo("*", Match.stringLikeRegexp(
+                "Capacity: app \\[c6i.large, 2-4 instances\\]; fleets \\[c6i.large, 2-2 instances\\].*"));
+    }
+
+    @Test
+    public void rejectsScalingHeadroomBelowOne() {
+
+        assertThrows(IllegalArgumentException.class, () -> new PerformanceBudget.Policy(
+                false, true, List.of(), List.of(), false, 1, 0.5, false, false));
+    }
+
+    private static Annotations checkBudget(Stack stack, IConstruct app) {
+
+        PerformanceBudget performanceBudget = new PerformanceBudget(stack, app, STRICT_POLICY);
+        Aspects.of(stack).add(performanceBudget);
+        stack.getNode().addValidation(performanceBudget);
+
+        return Annotations.fromStack(stack);
+    }
+}